@@ -58,6 +58,26 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.named<Test>("test") {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Микробенчмарки (./gradlew benchmark), в обычный test не входят
+tasks.register<Test>("benchmark") {
+    description = "Runs tests tagged as benchmark"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
 // Task для создания JAR с зависимостями
 tasks.register<Jar>("fatJar") {
     dependsOn.addAll(listOf("compileJava", "compileTestJava", "processTestResources"))
@@ -40,13 +40,17 @@ public class EvaluationCli {
             
             // Создаем сервис (для простоты без Spring контекста)
             OllamaClient ollamaClient = new OllamaClient();
-            VacancyEvaluationService evaluationService = new VacancyEvaluationService(null, null, ollamaClient);
-            
-            // Оцениваем вакансию
-            EvaluationResult result = evaluationService.evaluateVacancy(vacancyId, userProfile);
-            
-            // Выводим результат
-            printResult(result);
+            VacancyEvaluationService evaluationService = new VacancyEvaluationService(null, null, ollamaClient, null);
+            try {
+                // Оцениваем вакансию
+                EvaluationResult result = evaluationService.evaluateVacancy(vacancyId, userProfile);
+                
+                // Выводим результат
+                printResult(result);
+            } finally {
+                // Закрываем браузер, иначе Chrome переживёт процесс CLI
+                evaluationService.close();
+            }
             
         } catch (Exception e) {
             log.error("Ошибка при оценке вакансии: {}", e.getMessage(), e);
@@ -8,12 +8,23 @@ import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 @Component
 public class Env {
     private static final Logger log = LoggerFactory.getLogger(Env.class);
     
+    // Selenium pool defaults, shared with SeleniumVacancyFetcher.Settings.defaults() for runs without Spring
+    public static final int DEFAULT_SELENIUM_POOL_SIZE = 0;
+    public static final int DEFAULT_SELENIUM_MAX_PAGES_PER_DRIVER = 50;
+    public static final int DEFAULT_SELENIUM_IDLE_TIMEOUT_SEC = 300;
+    public static final int DEFAULT_SELENIUM_ACQUIRE_TIMEOUT_MS = 60000;
+    public static final boolean DEFAULT_SELENIUM_LEAN_PROFILE = true;
+    public static final int DEFAULT_SELENIUM_PAGE_LOAD_TIMEOUT_SEC = 15;
+    public static final String DEFAULT_SELENIUM_DISK_CACHE_DIR = "data/chrome-cache";
+    
     private Dotenv dotenv;
     
     @PostConstruct
@@ -56,6 +67,14 @@ public class Env {
         }
     }
     
+    public double getDouble(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(get(key));
+        } catch (NullPointerException | NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
     public boolean getBoolean(String key, boolean defaultValue) {
         String value = get(key);
         if (value == null) return defaultValue;
@@ -87,6 +106,18 @@ public class Env {
         return url;
     }
     
+    public int getHhSearchMaxPages() {
+        return getInt("HH_SEARCH_MAX_PAGES", 1);
+    }
+    
+    public int getHhSearchConcurrency() {
+        return getInt("HH_SEARCH_CONCURRENCY", 3);
+    }
+    
+    public boolean isHhSearchStopOnSeen() {
+        return getBoolean("HH_SEARCH_STOP_ON_SEEN", false);
+    }
+    
     public String getHhApplyUrlTemplate() {
         return get("HH_APPLY_URL_TEMPLATE");
     }
@@ -123,6 +154,50 @@ public class Env {
         return getInt("HTTP_READ_TIMEOUT_MS", 20000);
     }
     
+    public String getHttpExecutor() {
+        return get("HTTP_EXECUTOR", "virtual");
+    }
+    
+    public int getHttpExecutorThreads() {
+        return getInt("HTTP_EXECUTOR_THREADS", 4);
+    }
+    
+    public int getHttpKeepAliveTimeoutSec() {
+        return getInt("HTTP_KEEPALIVE_TIMEOUT_SEC", 300);
+    }
+    
+    public int getHttpConnectionPoolSize() {
+        return getInt("HTTP_CONNECTION_POOL_SIZE", 0);
+    }
+    
+    public int getHhRetryMaxAttempts() {
+        return getInt("HH_RETRY_MAX_ATTEMPTS", 3);
+    }
+    
+    public int getHhRetryBaseDelayMs() {
+        return getInt("HH_RETRY_BASE_DELAY_MS", 500);
+    }
+    
+    public int getHhRetryMaxDelayMs() {
+        return getInt("HH_RETRY_MAX_DELAY_MS", 8000);
+    }
+    
+    public int getHhBreakerWindow() {
+        return getInt("HH_BREAKER_WINDOW", 20);
+    }
+    
+    public int getHhBreakerMinCalls() {
+        return getInt("HH_BREAKER_MIN_CALLS", 5);
+    }
+    
+    public double getHhBreakerFailureRate() {
+        return getDouble("HH_BREAKER_FAILURE_RATE", 0.5);
+    }
+    
+    public int getHhBreakerOpenMs() {
+        return getInt("HH_BREAKER_OPEN_MS", 60000);
+    }
+    
     public int getRateLimitMinDelayMs() {
         return getInt("RATE_LIMIT_MIN_DELAY_MS", 500);
     }
@@ -131,10 +206,170 @@ public class Env {
         return getInt("RATE_LIMIT_MAX_DELAY_MS", 4000);
     }
     
+    public int getRateLimitBurst() {
+        return getInt("RATE_LIMIT_BURST", 1);
+    }
+    
+    public int getRateLimitJitterMs() {
+        return getInt("RATE_LIMIT_JITTER_MS", 250);
+    }
+    
+    public double getRateLimitIncreasePerSuccess() {
+        return getDouble("RATE_LIMIT_INCREASE", 0.05);
+    }
+    
+    public double getRateLimitDecreaseFactor() {
+        return getDouble("RATE_LIMIT_DECREASE_FACTOR", 0.5);
+    }
+    
+    public String getVacancySeleniumMode() {
+        return get("VACANCY_SELENIUM_MODE", "off").trim().toLowerCase();
+    }
+    
+    public int getSeleniumPoolSize() {
+        return getInt("SELENIUM_POOL_SIZE", DEFAULT_SELENIUM_POOL_SIZE);
+    }
+    
+    public int getSeleniumMaxPagesPerDriver() {
+        return getInt("SELENIUM_MAX_PAGES_PER_DRIVER", DEFAULT_SELENIUM_MAX_PAGES_PER_DRIVER);
+    }
+    
+    public int getSeleniumIdleTimeoutSec() {
+        return getInt("SELENIUM_IDLE_TIMEOUT_SEC", DEFAULT_SELENIUM_IDLE_TIMEOUT_SEC);
+    }
+    
+    public int getSeleniumAcquireTimeoutMs() {
+        return getInt("SELENIUM_ACQUIRE_TIMEOUT_MS", DEFAULT_SELENIUM_ACQUIRE_TIMEOUT_MS);
+    }
+    
+    public boolean isSeleniumLeanProfile() {
+        return getBoolean("SELENIUM_LEAN_PROFILE", DEFAULT_SELENIUM_LEAN_PROFILE);
+    }
+    
+    public int getSeleniumPageLoadTimeoutSec() {
+        return getInt("SELENIUM_PAGE_LOAD_TIMEOUT_SEC", DEFAULT_SELENIUM_PAGE_LOAD_TIMEOUT_SEC);
+    }
+    
+    public String getSeleniumDiskCacheDir() {
+        return get("SELENIUM_DISK_CACHE_DIR", DEFAULT_SELENIUM_DISK_CACHE_DIR);
+    }
+    
+    public List<String> getSeleniumBlockedUrls() {
+        String value = get("SELENIUM_BLOCKED_URLS", "");
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+    }
+    
+    public int getVacancyCacheSize() {
+        return getInt("VACANCY_CACHE_SIZE", 500);
+    }
+    
+    public int getVacancyCacheTtlMin() {
+        return getInt("VACANCY_CACHE_TTL_MIN", 60);
+    }
+    
+    public boolean isVacancyCachePersistent() {
+        return getBoolean("VACANCY_CACHE_PERSIST", true);
+    }
+    
+    public int getVacancyCacheDbTtlHours() {
+        return getInt("VACANCY_CACHE_DB_TTL_HOURS", 24);
+    }
+    
+    public int getEvalCacheSize() {
+        return getInt("EVAL_CACHE_SIZE", 1000);
+    }
+    
+    public boolean isEvalCachePersistent() {
+        return getBoolean("EVAL_CACHE_PERSIST", true);
+    }
+    
+    public int getOllamaMaxInFlight() {
+        return getInt("OLLAMA_MAX_IN_FLIGHT", 1);
+    }
+    
+    public int getOllamaQueueCapacity() {
+        return getInt("OLLAMA_QUEUE_CAPACITY", 32);
+    }
+    
+    public int getOllamaTimeoutSec() {
+        return getInt("OLLAMA_TIMEOUT_SEC", 60);
+    }
+    
+    public boolean isOllamaStreaming() {
+        return getBoolean("OLLAMA_STREAMING", true);
+    }
+    
     public String getDbPath() {
         return get("DB_PATH", "data/app.db");
     }
     
+    public int getDbReadConnections() {
+        return getInt("DB_READ_CONNECTIONS", 2);
+    }
+    
+    public int getDbCacheSizeKb() {
+        return getInt("DB_CACHE_SIZE_KB", 8192);
+    }
+    
+    public int getDbMmapSizeMb() {
+        return getInt("DB_MMAP_SIZE_MB", 64);
+    }
+    
+    public int getDbBusyTimeoutMs() {
+        return getInt("DB_BUSY_TIMEOUT_MS", 5000);
+    }
+    
+    public int getDbLogQueueCapacity() {
+        return getInt("DB_LOG_QUEUE_CAPACITY", 10000);
+    }
+    
+    public int getDbLogBatchSize() {
+        return getInt("DB_LOG_BATCH_SIZE", 200);
+    }
+    
+    public int getDbLogFlushIntervalMs() {
+        return getInt("DB_LOG_FLUSH_INTERVAL_MS", 200);
+    }
+    
+    public String getDbLogOverflowPolicy() {
+        return get("DB_LOG_OVERFLOW_POLICY", "block");
+    }
+    
+    public int getLogRetentionDays() {
+        return getInt("LOG_RETENTION_DAYS", 30);
+    }
+    
+    public int getLogRetentionMaxRows() {
+        return getInt("LOG_RETENTION_MAX_ROWS", 500000);
+    }
+    
+    public int getLogRetentionBatchSize() {
+        return getInt("LOG_RETENTION_BATCH_SIZE", 1000);
+    }
+    
+    public int getLogRetentionIntervalMin() {
+        return getInt("LOG_RETENTION_INTERVAL_MIN", 60);
+    }
+    
+    public String getLogArchiveDir() {
+        return get("LOG_ARCHIVE_DIR", "data/archive");
+    }
+    
+    public int getDbVacuumPages() {
+        return getInt("DB_VACUUM_PAGES", 2000);
+    }
+    
+    public boolean isDbVacuumConvert() {
+        return getBoolean("DB_VACUUM_CONVERT", false);
+    }
+    
+    public int getApplyConcurrency() {
+        return getInt("APPLY_CONCURRENCY", 1);
+    }
+    
     public boolean isApplyDryRun() {
         return getBoolean("APPLY_DRY_RUN", false);
     }
@@ -0,0 +1,49 @@
+package app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/**
+ * Ollama settings from the ollama.* keys in application.properties.
+ *
+ * @param model model that answers every prompt, and the escalation target when triage is enabled
+ * @param triageModel smaller model that scores vacancies first; blank disables routing
+ * @param keepAlive how long the server keeps a model loaded after a request, in Ollama duration
+ *                  syntax ("30m"); a loaded model keeps its prompt cache, so shared prompt
+ *                  prefixes are not evaluated again
+ */
+@ConfigurationProperties(prefix = "ollama")
+public record OllamaProperties(@DefaultValue("http://localhost:11434") String baseUrl,
+                               @DefaultValue("llama3:8b") String model,
+                               @DefaultValue("") String triageModel,
+                               @DefaultValue("0.0") double temperature,
+                               @DefaultValue("0.9") double topP,
+                               @DefaultValue("0") int mirostat,
+                               @DefaultValue("30m") String keepAlive,
+                               @DefaultValue Escalation escalation) {
+    
+    /**
+     * Uncertainty band of a triage result: a result is sent to the main model when its lower
+     * fit score falls within [scoreMin, scoreMax] or its confidence is below minConfidence.
+     */
+    public record Escalation(@DefaultValue("50") int scoreMin,
+                             @DefaultValue("80") int scoreMax,
+                             @DefaultValue("0.7") double minConfidence) {}
+    
+    /**
+     * Defaults for running without Spring (CLI), bound from the @DefaultValue annotations above
+     * so they cannot drift from what Spring uses when a key is missing
+     */
+    public static OllamaProperties defaults() {
+        return new Binder(new MapConfigurationPropertySource()).bindOrCreate("ollama", OllamaProperties.class);
+    }
+    
+    /**
+     * Whether a triage model distinct from the main model is configured
+     */
+    public boolean isRoutingEnabled() {
+        return triageModel != null && !triageModel.isBlank() && !triageModel.equals(model);
+    }
+}
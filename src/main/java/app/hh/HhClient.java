@@ -1,7 +1,11 @@
 package app.hh;
 
 import app.config.Env;
+import app.http.AdaptiveRateLimiter;
+import app.http.CircuitBreaker;
+import app.http.CircuitOpenException;
 import app.http.HttpClientFactory;
+import app.http.RetryPolicy;
 import app.model.ApplyResult;
 import app.util.CookieUtils;
 import app.util.Multipart;
@@ -10,9 +14,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -20,42 +24,79 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 @Component
 public class HhClient {
     private static final Logger log = LoggerFactory.getLogger(HhClient.class);
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final int ERROR_PREVIEW_BYTES = 512;
     
     private final Env env;
     private final HttpClientFactory httpClientFactory;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy readPolicy;
+    private final RetryPolicy writePolicy;
+    private final Map<String, LongAdder> retryCounts = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
     
-    public HhClient(Env env, HttpClientFactory httpClientFactory) {
+    public HhClient(Env env, HttpClientFactory httpClientFactory, AdaptiveRateLimiter rateLimiter,
+                    CircuitBreaker circuitBreaker) {
         this.env = env;
         this.httpClientFactory = httpClientFactory;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        // GETs are safe to repeat; the apply and interaction POSTs only when nothing was sent
+        this.readPolicy = RetryPolicy.idempotent(env.getHhRetryMaxAttempts(),
+                env.getHhRetryBaseDelayMs(), env.getHhRetryMaxDelayMs());
+        this.writePolicy = RetryPolicy.connectFailuresOnly(env.getHhRetryMaxAttempts(),
+                env.getHhRetryBaseDelayMs(), env.getHhRetryMaxDelayMs());
         this.objectMapper = new ObjectMapper();
     }
     
     /**
-     * Fetches search page JSON
-     * @return JSON content of the search page
+     * Reads a decoded response body as it arrives from the network
      */
-    public String fetchSearchJson() {
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+    
+    /**
+     * Fetches the search page and hands the decoded JSON stream to the reader,
+     * without buffering the body in memory
+     * @param reader Consumer of the JSON stream
+     * @return Whatever the reader produced
+     */
+    public <T> T fetchSearch(BodyReader<T> reader) {
+        String searchUrl = env.getHhSearchUrl();
+        if (searchUrl == null || searchUrl.trim().isEmpty()) {
+            throw new RuntimeException("HH_SEARCH_URL is not configured");
+        }
+        return fetchSearch(searchUrl, reader);
+    }
+    
+    /**
+     * Fetches the given search page URL and hands the decoded JSON stream to the reader
+     * @param searchUrl Search page URL (e.g. with a page parameter)
+     * @param reader Consumer of the JSON stream
+     * @return Whatever the reader produced
+     */
+    public <T> T fetchSearch(String searchUrl, BodyReader<T> reader) {
         try {
             // Validate required configuration
-            String searchUrl = env.getHhSearchUrl();
             String cookies = env.getHhCookies();
             
-            if (searchUrl == null || searchUrl.trim().isEmpty()) {
-                throw new RuntimeException("HH_SEARCH_URL is not configured");
-            }
             if (cookies == null || cookies.trim().isEmpty()) {
                 throw new RuntimeException("HH_COOKIES is not configured");
             }
             
-            HttpClient client = httpClientFactory.createHttpClient();
-            
             log.info("Fetching search page from: {}", searchUrl);
             
             HttpRequest request = HttpRequest.newBuilder()
@@ -64,29 +105,25 @@ public class HhClient {
                     .header("User-Agent", env.getUserAgent())
                     .header("Accept", "application/json; charset=utf-8")
                     .header("Accept-Language", "ru,en;q=0.9")
-                    .header("Accept-Encoding", "gzip, deflate, br")
+                    .header("Accept-Encoding", "gzip, deflate")
                     .header("X-Requested-With", "XMLHttpRequest")
                     .header("x-static-version", "25.31.3.2")
                     .timeout(Duration.ofMillis(env.getHttpReadTimeoutMs()))
                     .GET()
                     .build();
             
-            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-
-            if (response.statusCode() == 200) {
-                GZIPInputStream  gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()));
-                String body = new String(gzip.readAllBytes());
-                log.info("Successfully fetched search JSON, size: {} bytes", body.length());
-                log.info(body);
-                // Log JSON structure for debugging
-                if (body.length() > 0) {
-                    log.debug("JSON response preview - first 500 chars: {}", 
-                             body.substring(0, Math.min(500, body.length())));
+            HttpResponse<InputStream> response = send("search", readPolicy, request, HttpResponse.BodyHandlers.ofInputStream());
+            
+            try (InputStream body = decodeBody(response)) {
+                if (response.statusCode() == 200) {
+                    T result = reader.read(body);
+                    log.info("Successfully read search JSON stream (encoding: {})",
+                            response.headers().firstValue("Content-Encoding").orElse("identity"));
+                    return result;
                 }
                 
-                return body;
-            } else {
-                log.error("Failed to fetch search JSON, status: {}, response: {}", response.statusCode(), response.body());
+                String preview = new String(body.readNBytes(ERROR_PREVIEW_BYTES), StandardCharsets.UTF_8);
+                log.error("Failed to fetch search JSON, status: {}, response: {}", response.statusCode(), preview);
                 throw new RuntimeException("Search JSON fetch failed with status: " + response.statusCode());
             }
             
@@ -96,6 +133,128 @@ public class HhClient {
         }
     }
     
+    /**
+     * Fetches the server-rendered vacancy page and hands the decoded HTML stream to the reader.
+     * Cookies are sent when configured so the page matches what the logged-in user sees.
+     * @param vacancyId Vacancy ID
+     * @param reader Consumer of the HTML stream
+     * @return Whatever the reader produced
+     */
+    public <T> T fetchVacancyPage(String vacancyId, BodyReader<T> reader) {
+        String url = getVacancyUrl(vacancyId);
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("User-Agent", env.getUserAgent())
+                    .header("Accept", "text/html,application/xhtml+xml")
+                    .header("Accept-Language", "ru,en;q=0.9")
+                    .header("Accept-Encoding", "gzip, deflate")
+                    .timeout(Duration.ofMillis(env.getHttpReadTimeoutMs()))
+                    .GET();
+            String cookies = env.getHhCookies();
+            if (cookies != null && !cookies.isBlank()) {
+                builder.header("Cookie", cookies);
+            }
+            
+            HttpResponse<InputStream> response = send("vacancy", readPolicy, builder.build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            
+            try (InputStream body = decodeBody(response)) {
+                if (response.statusCode() == 200) {
+                    return reader.read(body);
+                }
+                log.warn("Failed to fetch vacancy page {}, status: {}", vacancyId, response.statusCode());
+                throw new RuntimeException("Vacancy page fetch failed with status: " + response.statusCode());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Vacancy page fetch failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching vacancy page " + vacancyId, e);
+        }
+    }
+    
+    public String getVacancyUrl(String vacancyId) {
+        return env.getHhBaseUrl() + "/vacancy/" + vacancyId;
+    }
+    
+    /**
+     * Sends a request through the circuit breaker and the shared rate limiter,
+     * retrying according to the endpoint's policy
+     * @param endpoint Endpoint name used for retry metrics
+     */
+    private <T> HttpResponse<T> send(String endpoint, RetryPolicy policy, HttpRequest request,
+                                     HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new CircuitOpenException("Circuit breaker is open, skipping " + endpoint + " request");
+            }
+            
+            HttpResponse<T> response;
+            try {
+                rateLimiter.acquire();
+                response = httpClientFactory.send(request, handler);
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                if (attempt >= policy.maxAttempts() || !policy.shouldRetry(e)) {
+                    throw e;
+                }
+                backoff(endpoint, policy, attempt, e.toString());
+                continue;
+            }
+            
+            int status = response.statusCode();
+            rateLimiter.onResponse(status, response.headers().firstValue("Retry-After"));
+            if (RetryPolicy.isServerFailure(status)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            
+            if (attempt >= policy.maxAttempts() || !policy.shouldRetry(status)) {
+                return response;
+            }
+            if (response.body() instanceof InputStream body) {
+                body.close();
+            }
+            backoff(endpoint, policy, attempt, "status " + status);
+        }
+    }
+    
+    private void backoff(String endpoint, RetryPolicy policy, int attempt, String reason) throws InterruptedException {
+        long delay = policy.backoffMillis(attempt);
+        retryCounts.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        log.warn("Retrying {} request (attempt {}/{}) in {} ms after {}", endpoint, attempt + 1,
+                policy.maxAttempts(), delay, reason);
+        Thread.sleep(delay);
+    }
+    
+    /**
+     * Retries made so far, per endpoint
+     */
+    public Map<String, Long> getRetryCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        retryCounts.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+    
+    /**
+     * Wraps the raw body stream with the inflater matching Content-Encoding
+     */
+    private static InputStream decodeBody(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase();
+        InputStream raw = response.body();
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(raw, STREAM_BUFFER_SIZE);
+            case "deflate" -> new InflaterInputStream(raw);
+            case "", "identity" -> raw;
+            default -> {
+                raw.close();
+                throw new IOException("Unsupported Content-Encoding: " + encoding);
+            }
+        };
+    }
+    
     /**
      * Fetches popup preparation data (optional)
      * @param vacancyId Vacancy ID
@@ -103,8 +262,6 @@ public class HhClient {
      */
     public Optional<String> fetchPopupPrepare(String vacancyId) {
         try {
-            HttpClient client = httpClientFactory.createHttpClient();
-            
             String url = env.getHhApplyUrlTemplate() + "?vacancyId=" + vacancyId;
             
             HttpRequest request = HttpRequest.newBuilder()
@@ -117,7 +274,7 @@ public class HhClient {
                     .GET()
                     .build();
             
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> response = send("popup", readPolicy, request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
             
             if (response.statusCode() == 200) {
                 log.debug("Successfully fetched popup data for vacancy {}", vacancyId);
@@ -137,11 +294,10 @@ public class HhClient {
      * Applies to vacancy using multipart/form-data
      * @param vacancyId Vacancy ID
      * @return Apply result
+     * @throws CircuitOpenException if hh.ru is considered down and the request was not sent
      */
     public ApplyResult applyMultipart(String vacancyId) {
         try {
-            HttpClient client = httpClientFactory.createHttpClient();
-            
             // Extract CSRF token from cookies
             Optional<String> csrfToken = CookieUtils.extractCsrfToken(env.getHhCookies());
             if (csrfToken.isEmpty()) {
@@ -187,7 +343,7 @@ public class HhClient {
             
             HttpRequest request = requestBuilder.build();
             
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> response = send("apply", writePolicy, request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
             
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 log.info("Successfully applied to vacancy {}", vacancyId);
@@ -198,6 +354,8 @@ public class HhClient {
                 return ApplyResult.failure(vacancyId, response.statusCode(), response.body());
             }
             
+        } catch (CircuitOpenException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to apply to vacancy {}", vacancyId, e);
             return ApplyResult.failure(vacancyId, 500, e.getMessage());
@@ -214,8 +372,6 @@ public class HhClient {
         }
         
         try {
-            HttpClient client = httpClientFactory.createHttpClient();
-            
             // Extract CSRF token
             Optional<String> csrfToken = CookieUtils.extractCsrfToken(env.getHhCookies());
             if (csrfToken.isEmpty()) {
@@ -238,7 +394,7 @@ public class HhClient {
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
             
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> response = send("interaction", writePolicy, request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
             
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 log.debug("Successfully registered interaction for vacancy {}", vacancyId);
@@ -0,0 +1,139 @@
+package app.hh;
+
+import app.config.Env;
+import app.hh.parser.JsonSearchParser;
+import app.hh.parser.SearchPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Walks every page of the configured search and merges the results.
+ * Page 0 is fetched first to learn the page count; the remaining pages are fetched
+ * concurrently, but merged strictly in page order. Request pacing is left to the
+ * rate limiter every HhClient call goes through.
+ */
+@Component
+public class SearchCrawler {
+    private static final Logger log = LoggerFactory.getLogger(SearchCrawler.class);
+    private static final Pattern PAGE_PARAM = Pattern.compile("([?&])page=[^&#]*");
+    // A single all-seen page is not enough to stop: hh.ru reorders results between runs
+    private static final int SEEN_PAGES_TO_STOP = 2;
+    
+    private final Env env;
+    private final HhClient hhClient;
+    private final JsonSearchParser jsonSearchParser;
+    
+    public SearchCrawler(Env env, HhClient hhClient, JsonSearchParser jsonSearchParser) {
+        this.env = env;
+        this.hhClient = hhClient;
+        this.jsonSearchParser = jsonSearchParser;
+    }
+    
+    /**
+     * Crawls search pages 0..N (capped by HH_SEARCH_MAX_PAGES). With HH_SEARCH_STOP_ON_SEEN the
+     * crawl stops after SEEN_PAGES_TO_STOP consecutive non-empty pages past page 0 that hold only
+     * already seen vacancies; page 0 alone never stops it.
+     * @param alreadySeen Tells whether a vacancy was already handled in an earlier run
+     * @return Vacancy IDs in page order, without duplicates
+     */
+    public Set<String> crawl(Predicate<String> alreadySeen) {
+        String searchUrl = env.getHhSearchUrl();
+        if (searchUrl == null || searchUrl.trim().isEmpty()) {
+            throw new RuntimeException("HH_SEARCH_URL is not configured");
+        }
+        
+        boolean stopOnSeen = env.isHhSearchStopOnSeen();
+        
+        SearchPage first = hhClient.fetchSearch(pageUrl(searchUrl, 0), jsonSearchParser::readPage);
+        Set<String> merged = new LinkedHashSet<>(first.vacancyIds());
+        
+        int pageCount = Math.min(first.pageCount(), Math.max(1, env.getHhSearchMaxPages()));
+        if (pageCount <= 1) {
+            return merged;
+        }
+        
+        log.info("Crawling {} search pages with up to {} in flight", pageCount, env.getHhSearchConcurrency());
+        Semaphore inFlight = new Semaphore(Math.max(1, env.getHhSearchConcurrency()), true);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<SearchPage>> pages = new ArrayList<>();
+            for (int page = 1; page < pageCount; page++) {
+                String url = pageUrl(searchUrl, page);
+                pages.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return hhClient.fetchSearch(url, jsonSearchParser::readPage);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            
+            int seenPages = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                SearchPage page;
+                try {
+                    page = pages.get(i).get();
+                } catch (ExecutionException e) {
+                    log.warn("Failed to fetch search page {}: {}", i + 1, e.getCause().getMessage());
+                    seenPages = 0;
+                    continue;
+                }
+                
+                seenPages = stopOnSeen && isOnlySeen(page, merged, alreadySeen) ? seenPages + 1 : 0;
+                merged.addAll(page.vacancyIds());
+                
+                if (seenPages >= SEEN_PAGES_TO_STOP) {
+                    log.info("Search pages {}..{} hold only already seen vacancies, stopping crawl",
+                            i + 2 - seenPages, i + 1);
+                    pages.subList(i + 1, pages.size()).forEach(future -> future.cancel(true));
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Search crawl interrupted, returning {} vacancies collected so far", merged.size());
+        }
+        
+        log.info("Search crawl collected {} unique vacancies", merged.size());
+        return merged;
+    }
+    
+    private static boolean isOnlySeen(SearchPage page, Set<String> merged, Predicate<String> alreadySeen) {
+        // An empty or failed page says nothing about what comes after it
+        if (page.vacancyIds().isEmpty()) {
+            return false;
+        }
+        for (String vacancyId : page.vacancyIds()) {
+            if (!merged.contains(vacancyId) && !alreadySeen.test(vacancyId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Sets (or replaces) the page query parameter of a search URL
+     */
+    static String pageUrl(String url, int page) {
+        Matcher matcher = PAGE_PARAM.matcher(url);
+        if (matcher.find()) {
+            return matcher.replaceFirst("$1page=" + page);
+        }
+        return url + (url.contains("?") ? "&" : "?") + "page=" + page;
+    }
+}
@@ -1,57 +1,124 @@
 package app.hh.parser;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class JsonSearchParser {
     private static final Logger log = LoggerFactory.getLogger(JsonSearchParser.class);
-    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
     
     public JsonSearchParser() {
-        this.objectMapper = new ObjectMapper();
+        this.jsonFactory = new JsonFactory();
     }
     
     /**
-     * Extracts vacancy IDs from JSON search response
-     * @param json JSON content of the search response
-     * @return Set of unique vacancy IDs
+     * Reads one search page: its vacancy IDs plus the paging metadata
+     * @param json Decoded JSON stream of the search response
+     * @return Parsed page
      */
-    public Set<String> extractVacancyIds(String json) {
-        Set<String> vacancyIds = new HashSet<>();
-        
-        try {
-            JsonNode rootNode = objectMapper.readTree(json);
+    public SearchPage readPage(InputStream json) throws IOException {
+        Set<String> vacancyIds = new LinkedHashSet<>();
+        Paging paging = new Paging();
+        walk(json, vacancyIds::add, paging);
+        log.info("Extracted {} vacancy IDs from search page (lastPage={}, totalResults={})",
+                vacancyIds.size(), paging.lastPage, paging.totalResults);
+        return new SearchPage(List.copyOf(vacancyIds), paging.lastPage, paging.totalResults);
+    }
+    
+    /**
+     * Walks the token stream and emits every vacancySearchResult.vacancies[].vacancyId
+     * as soon as it is read. Everything else is skipped without being materialized.
+     */
+    private void walk(InputStream json, Consumer<String> sink, Paging paging) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
             
-            // Navigate to vacancySearchResult.vacancies
-            JsonNode vacancySearchResult = rootNode.get("vacancySearchResult");
-            if (vacancySearchResult != null) {
-                JsonNode vacancies = vacancySearchResult.get("vacancies");
-                if (vacancies != null && vacancies.isArray()) {
-                    for (JsonNode vacancy : vacancies) {
-                        JsonNode idNode = vacancy.get("vacancyId");
-                        if (idNode != null) {
-                            String vacancyId = idNode.asText();
-                            vacancyIds.add(vacancyId);
-                            log.debug("Found vacancy ID: {}", vacancyId);
-                        }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("vacancySearchResult".equals(field) && value == JsonToken.START_OBJECT) {
+                    readSearchResult(parser, sink, paging);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+    
+    private void readSearchResult(JsonParser parser, Consumer<String> sink, Paging paging) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("vacancies".equals(field) && value == JsonToken.START_ARRAY) {
+                readVacancies(parser, sink);
+            } else if ("totalResults".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                paging.totalResults = parser.getIntValue();
+            } else if ("paging".equals(field) && value == JsonToken.START_OBJECT) {
+                readPaging(parser, paging);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+    
+    private void readPaging(JsonParser parser, Paging paging) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("lastPage".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String pageField = parser.currentName();
+                    JsonToken pageValue = parser.nextToken();
+                    if ("page".equals(pageField) && pageValue == JsonToken.VALUE_NUMBER_INT) {
+                        paging.lastPage = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
                     }
                 }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+    
+    private void readVacancies(JsonParser parser, Consumer<String> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
             }
             
-            log.info("Extracted {} unique vacancy IDs from JSON response", vacancyIds.size());
-            
-        } catch (Exception e) {
-            log.error("Failed to parse JSON search response", e);
-            log.debug("JSON content: {}", json.substring(0, Math.min(500, json.length())));
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("vacancyId".equals(field) && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    String vacancyId = parser.getValueAsString();
+                    log.debug("Found vacancy ID: {}", vacancyId);
+                    sink.accept(vacancyId);
+                } else {
+                    parser.skipChildren();
+                }
+            }
         }
-        
-        return vacancyIds;
     }
-} 
\ No newline at end of file
+    
+    private static final class Paging {
+        int lastPage = -1;
+        int totalResults = -1;
+    }
+}
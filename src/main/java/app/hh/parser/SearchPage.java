@@ -0,0 +1,26 @@
+package app.hh.parser;
+
+import java.util.List;
+
+/**
+ * One page of search results with the paging metadata hh.ru sends alongside it
+ * @param vacancyIds Vacancy IDs in page order
+ * @param lastPage Zero-based index of the last page, or -1 if absent
+ * @param totalResults Total number of matches, or -1 if absent
+ */
+public record SearchPage(List<String> vacancyIds, int lastPage, int totalResults) {
+    
+    /**
+     * Number of pages available, falling back to totalResults / page size when
+     * the paging block is missing
+     */
+    public int pageCount() {
+        if (lastPage >= 0) {
+            return lastPage + 1;
+        }
+        if (totalResults > 0 && !vacancyIds.isEmpty()) {
+            return (totalResults + vacancyIds.size() - 1) / vacancyIds.size();
+        }
+        return 1;
+    }
+}
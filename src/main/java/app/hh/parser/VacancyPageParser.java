@@ -0,0 +1,132 @@
+package app.hh.parser;
+
+import app.model.Vacancy;
+import app.util.TextUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts vacancy fields from the server-rendered hh.ru vacancy page by data-qa attributes
+ */
+public class VacancyPageParser {
+    
+    static final String TITLE = "[data-qa=vacancy-title], h1";
+    static final String COMPANY = "[data-qa=vacancy-company-name]";
+    static final String LOCATION = "[data-qa=vacancy-view-location], [data-qa=vacancy-view-raw-address]";
+    static final String SALARY = "[data-qa=vacancy-salary]";
+    static final String DESCRIPTION = "[data-qa=vacancy-description]";
+    static final String EMPLOYMENT = "[data-qa=vacancy-view-employment-mode]";
+    static final String WORK_FORMAT = "[data-qa=vacancy-view-work-schedule], [data-qa=vacancy-view-schedule], "
+            + "[data-qa=work-formats-text]";
+    static final String KEY_SKILLS = "[data-qa=skills-element], .bloko-tag__section_text";
+    
+    /**
+     * Parses a vacancy page read from a stream
+     * @param html Page bytes
+     * @param vacancyId Vacancy ID
+     * @param sourceUrl Page URL, also used as base URI
+     * @return Parsed vacancy; title is null when the page is not a vacancy (e.g. a captcha)
+     */
+    public Vacancy parse(InputStream html, String vacancyId, String sourceUrl) throws IOException {
+        return parse(Jsoup.parse(html, "UTF-8", sourceUrl), vacancyId, sourceUrl);
+    }
+    
+    public Vacancy parse(String html, String vacancyId, String sourceUrl) {
+        return parse(Jsoup.parse(html, sourceUrl), vacancyId, sourceUrl);
+    }
+    
+    public Vacancy parse(Document doc, String vacancyId, String sourceUrl) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(vacancyId);
+        vacancy.setSourceUrl(sourceUrl);
+        vacancy.setTitle(text(doc, TITLE));
+        vacancy.setCompany(text(doc, COMPANY));
+        vacancy.setLocation(text(doc, LOCATION));
+        vacancy.setSalaryRaw(text(doc, SALARY));
+        vacancy.setEmploymentType(text(doc, EMPLOYMENT));
+        vacancy.setWorkFormat(text(doc, WORK_FORMAT));
+        
+        Element descriptionElement = doc.selectFirst(DESCRIPTION);
+        String description = descriptionElement != null ? blockText(descriptionElement) : null;
+        vacancy.setDescription(description);
+        
+        // Key skills listed by the employer first, then words picked from the description
+        Set<String> skills = new LinkedHashSet<>();
+        for (Element skill : doc.select(KEY_SKILLS)) {
+            String name = skill.text().trim();
+            if (!name.isEmpty()) {
+                skills.add(name);
+            }
+        }
+        skills.addAll(TextUtils.extractSkills(description));
+        vacancy.setSkills(new ArrayList<>(skills));
+        
+        return vacancy;
+    }
+    
+    private static String text(Document doc, String selector) {
+        Element element = doc.selectFirst(selector);
+        if (element == null) {
+            return null;
+        }
+        String text = element.text().trim();
+        return text.isEmpty() ? null : text;
+    }
+    
+    /**
+     * Text with a line break after every block element, close to what a browser renders
+     */
+    static String blockText(Element root) {
+        StringBuilder out = new StringBuilder();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode textNode) {
+                    String text = textNode.text();
+                    if (!text.isBlank()) {
+                        if (out.length() > 0 && out.charAt(out.length() - 1) != '\n'
+                                && !Character.isWhitespace(out.charAt(out.length() - 1))) {
+                            out.append(' ');
+                        }
+                        out.append(text.strip());
+                    }
+                } else if (node instanceof Element element && element.normalName().equals("br")) {
+                    newLine(out);
+                }
+            }
+            
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element element && element.isBlock()) {
+                    newLine(out);
+                }
+            }
+        }, root);
+        
+        List<String> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(line.strip());
+            }
+        }
+        return String.join("\n", lines);
+    }
+    
+    private static void newLine(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+            out.append('\n');
+        }
+    }
+}
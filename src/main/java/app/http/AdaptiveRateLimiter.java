@@ -0,0 +1,161 @@
+package app.http;
+
+import app.config.Env;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket shared by every hh.ru request, with AIMD rate adaptation.
+ * Healthy responses raise the rate additively up to 1000/RATE_LIMIT_MIN_DELAY_MS req/s;
+ * 429/5xx cut it multiplicatively down to 1000/RATE_LIMIT_MAX_DELAY_MS req/s, and a
+ * Retry-After header pauses the bucket until the given moment.
+ */
+@Component
+public class AdaptiveRateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    
+    private final Env env;
+    
+    private double minRate;
+    private double maxRate;
+    private double burst;
+    private double increasePerSuccess;
+    private double decreaseFactor;
+    private int jitterMs;
+    
+    // Guarded by this
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder throttleEvents = new LongAdder();
+    private final LongAdder retryAfterEvents = new LongAdder();
+    private final LongAdder waitedMs = new LongAdder();
+    
+    public record Snapshot(double currentRate, double minRate, double maxRate, long acquisitions,
+                           long throttleEvents, long retryAfterEvents, long totalWaitMs, long pausedForMs) {}
+    
+    public AdaptiveRateLimiter(Env env) {
+        this.env = env;
+    }
+    
+    @PostConstruct
+    public void init() {
+        maxRate = 1000.0 / Math.max(1, env.getRateLimitMinDelayMs());
+        minRate = Math.min(maxRate, 1000.0 / Math.max(1, env.getRateLimitMaxDelayMs()));
+        burst = Math.max(1, env.getRateLimitBurst());
+        increasePerSuccess = env.getRateLimitIncreasePerSuccess();
+        decreaseFactor = Math.max(0.05, Math.min(0.95, env.getRateLimitDecreaseFactor()));
+        jitterMs = Math.max(0, env.getRateLimitJitterMs());
+        
+        // Start from the old average pacing and let the server tell us how far to go
+        rate = 2000.0 / (Math.max(1, env.getRateLimitMinDelayMs()) + Math.max(1, env.getRateLimitMaxDelayMs()));
+        rate = Math.max(minRate, Math.min(maxRate, rate));
+        tokens = 1;
+        lastRefillNanos = System.nanoTime();
+        pausedUntilNanos = lastRefillNanos;
+        
+        log.info("Rate limiter initialized: rate={} req/s (min={}, max={}, burst={})",
+                String.format("%.2f", rate), String.format("%.2f", minRate), String.format("%.2f", maxRate), burst);
+    }
+    
+    /**
+     * Blocks until the caller may send one request
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+            long debtNanos = tokens < 0 ? (long) (-tokens / rate * NANOS_PER_SECOND) : 0;
+            waitNanos = Math.max(pausedUntilNanos - now, debtNanos);
+        }
+        if (jitterMs > 0) {
+            waitNanos += TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(jitterMs + 1));
+        }
+        
+        acquisitions.increment();
+        if (waitNanos > 0) {
+            waitedMs.add(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    /**
+     * Feeds a response back into the limiter
+     * @param statusCode HTTP status code
+     * @param retryAfter Value of the Retry-After header, if any
+     */
+    public void onResponse(int statusCode, Optional<String> retryAfter) {
+        Optional<Duration> pause = retryAfter.flatMap(AdaptiveRateLimiter::parseRetryAfter);
+        boolean pushback = statusCode == 429 || statusCode >= 500;
+        
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            if (pushback || pause.isPresent()) {
+                rate = Math.max(minRate, rate * decreaseFactor);
+                throttleEvents.increment();
+                if (pause.isPresent()) {
+                    pausedUntilNanos = Math.max(pausedUntilNanos, now + pause.get().toNanos());
+                    tokens = Math.min(tokens, 0);
+                    retryAfterEvents.increment();
+                }
+                log.warn("hh.ru pushed back (status {}{}), slowing down to {} req/s", statusCode,
+                        pause.map(d -> ", retry after " + d.toSeconds() + "s").orElse(""),
+                        String.format("%.2f", rate));
+            } else if (statusCode < 400) {
+                rate = Math.min(maxRate, rate + increasePerSuccess);
+            }
+        }
+    }
+    
+    public synchronized Snapshot snapshot() {
+        long pausedFor = Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime()));
+        return new Snapshot(rate, minRate, maxRate, acquisitions.sum(), throttleEvents.sum(),
+                retryAfterEvents.sum(), waitedMs.sum(), pausedFor);
+    }
+    
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * rate / NANOS_PER_SECOND);
+            lastRefillNanos = now;
+        }
+    }
+    
+    /**
+     * Retry-After is either delta-seconds or an HTTP-date
+     */
+    static Optional<Duration> parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        String trimmed = value.trim();
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed))));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delta = Duration.between(ZonedDateTime.now(until.getZone()), until);
+                return Optional.of(delta.isNegative() ? Duration.ZERO : delta);
+            } catch (Exception ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+}
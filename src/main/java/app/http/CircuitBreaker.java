@@ -0,0 +1,148 @@
+package app.http;
+
+import app.config.Env;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-based circuit breaker for hh.ru.
+ * Tracks the outcome of the last HH_BREAKER_WINDOW calls; once at least HH_BREAKER_MIN_CALLS
+ * were made and the failure share reaches HH_BREAKER_FAILURE_RATE, the breaker opens and
+ * rejects calls for HH_BREAKER_OPEN_MS. After that a single probe call decides whether it
+ * closes again.
+ */
+@Component
+public class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    public record Snapshot(State state, double failureRate, int windowCalls, long rejectedCalls, long timesOpened) {}
+    
+    private final Env env;
+    
+    private int minCalls;
+    private double failureRateThreshold;
+    private long openNanos;
+    
+    // Guarded by this
+    private boolean[] window;
+    private int windowPos;
+    private int windowCalls;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private long probeStartedNanos;
+    private boolean probeInFlight;
+    
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+    
+    public CircuitBreaker(Env env) {
+        this.env = env;
+    }
+    
+    @PostConstruct
+    public void init() {
+        window = new boolean[Math.max(1, env.getHhBreakerWindow())];
+        minCalls = Math.max(1, Math.min(window.length, env.getHhBreakerMinCalls()));
+        failureRateThreshold = env.getHhBreakerFailureRate();
+        openNanos = TimeUnit.MILLISECONDS.toNanos(env.getHhBreakerOpenMs());
+    }
+    
+    /**
+     * Asks for permission to make a call
+     * @return false if the breaker is open and the call must be skipped
+     */
+    public synchronized boolean tryAcquirePermission() {
+        long now = System.nanoTime();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAtNanos < openNanos) {
+                    rejectedCalls.increment();
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                log.info("Circuit breaker half-open, letting one probe request through");
+                // fall through to the probe check
+            case HALF_OPEN:
+            default:
+                // A probe that never reported back (e.g. interrupted) must not block forever
+                if (probeInFlight && now - probeStartedNanos < openNanos) {
+                    rejectedCalls.increment();
+                    return false;
+                }
+                probeInFlight = true;
+                probeStartedNanos = now;
+                return true;
+        }
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("Circuit breaker closed after a successful probe");
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open("probe request failed");
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCalls >= minCalls
+                && (double) windowFailures / windowCalls >= failureRateThreshold) {
+            open(String.format("failure rate %.0f%% over last %d calls", 100.0 * windowFailures / windowCalls, windowCalls));
+        }
+    }
+    
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAtNanos < openNanos;
+    }
+    
+    public synchronized Snapshot snapshot() {
+        double rate = windowCalls == 0 ? 0.0 : (double) windowFailures / windowCalls;
+        return new Snapshot(state, rate, windowCalls, rejectedCalls.sum(), timesOpened.sum());
+    }
+    
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowPos]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowPos] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPos = (windowPos + 1) % window.length;
+    }
+    
+    private void open(String reason) {
+        log.warn("Circuit breaker opened: {}; rejecting hh.ru calls for {} ms", reason,
+                TimeUnit.NANOSECONDS.toMillis(openNanos));
+        reset(State.OPEN);
+        openedAtNanos = System.nanoTime();
+        timesOpened.increment();
+    }
+    
+    private void reset(State newState) {
+        state = newState;
+        probeInFlight = false;
+        windowPos = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+}
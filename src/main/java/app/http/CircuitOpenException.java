@@ -0,0 +1,11 @@
+package app.http;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker is open
+ */
+public class CircuitOpenException extends RuntimeException {
+    
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -1,24 +1,143 @@
 package app.http;
 
 import app.config.Env;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Owns the long-lived HttpClient shared by all hh.ru calls.
+ * One client keeps its HTTP/2 connection (and TLS session) open between requests,
+ * so consecutive applies multiplex over the same connection instead of handshaking again.
+ */
 @Component
 public class HttpClientFactory {
+    private static final Logger log = LoggerFactory.getLogger(HttpClientFactory.class);
     
     private final Env env;
+    private final HttpClientMetrics metrics = new HttpClientMetrics();
+    private volatile HttpClient sharedClient;
+    private volatile ExecutorService executor;
     
     public HttpClientFactory(Env env) {
         this.env = env;
     }
     
-    public HttpClient createHttpClient() {
+    /**
+     * Returns the shared client, creating it on first use
+     * @return Long-lived HttpClient
+     */
+    public HttpClient getHttpClient() {
+        HttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (this) {
+                client = sharedClient;
+                if (client == null) {
+                    client = buildClient();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+    
+    /**
+     * Sends a request through the shared client and records it in the metrics
+     * @param request HTTP request
+     * @param handler Body handler
+     * @return HTTP response
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        HttpResponse<T> response = getHttpClient().send(request, handler);
+        metrics.record(response);
+        return response;
+    }
+    
+    public HttpClientMetrics.Snapshot getMetrics() {
+        return metrics.snapshot();
+    }
+    
+    private HttpClient buildClient() {
+        applyConnectionPoolProperties();
+        executor = createExecutor();
+        
+        log.info("Creating shared HttpClient (executor={}, keepAlive={}s, poolSize={})",
+                env.getHttpExecutor(), env.getHttpKeepAliveTimeoutSec(), env.getHttpConnectionPoolSize());
+        
         return HttpClient.newBuilder()
                 .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofMillis(env.getHttpConnectTimeoutMs()))
+                .executor(executor)
                 .build();
     }
-} 
\ No newline at end of file
+    
+    private ExecutorService createExecutor() {
+        if ("fixed".equalsIgnoreCase(env.getHttpExecutor())) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(env.getHttpExecutorThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "hh-http-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hh-http-", 0).factory());
+    }
+    
+    /**
+     * The JDK client reads its pool settings from system properties once, when the
+     * first client is built. Explicit -D flags always win over .env values.
+     */
+    private void applyConnectionPoolProperties() {
+        setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(env.getHttpKeepAliveTimeoutSec()));
+        setIfAbsent("jdk.httpclient.keepalive.timeout.h2", String.valueOf(env.getHttpKeepAliveTimeoutSec()));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(env.getHttpConnectionPoolSize()));
+    }
+    
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        HttpClient client = sharedClient;
+        sharedClient = null;
+        if (client != null) {
+            HttpClientMetrics.Snapshot snapshot = metrics.snapshot();
+            log.info("Closing shared HttpClient: requests={}, http2={}", snapshot.requests(),
+                    snapshot.http2Responses());
+            client.shutdown();
+            try {
+                if (!client.awaitTermination(Duration.ofSeconds(5))) {
+                    client.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                client.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        ExecutorService exec = executor;
+        executor = null;
+        if (exec != null) {
+            exec.shutdown();
+            try {
+                exec.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
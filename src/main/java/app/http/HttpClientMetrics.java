@@ -0,0 +1,28 @@
+package app.http;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts requests sent through the shared client and how many were answered over HTTP/2.
+ * The JDK client does not expose whether a request went over a pooled connection, so
+ * connection reuse is not counted here.
+ */
+public class HttpClientMetrics {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    
+    public record Snapshot(long requests, long http2Responses) {}
+    
+    void record(HttpResponse<?> response) {
+        requests.increment();
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2Responses.increment();
+        }
+    }
+    
+    public Snapshot snapshot() {
+        return new Snapshot(requests.sum(), http2Responses.sum());
+    }
+}
@@ -0,0 +1,63 @@
+package app.http;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed hh.ru call may be repeated and how long to wait before it.
+ * Idempotent calls are retried on any I/O error and on 429/5xx; non-idempotent calls
+ * (the apply POST) only when the connection was never established, so the request
+ * cannot have reached the server.
+ * @param maxAttempts Total attempts including the first one
+ * @param baseDelayMs Backoff for the first retry
+ * @param maxDelayMs Upper bound of a single backoff
+ * @param idempotent Whether the request is safe to repeat after it was sent
+ */
+public record RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, boolean idempotent) {
+    
+    public static RetryPolicy idempotent(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        return new RetryPolicy(Math.max(1, maxAttempts), baseDelayMs, maxDelayMs, true);
+    }
+    
+    public static RetryPolicy connectFailuresOnly(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        return new RetryPolicy(Math.max(1, maxAttempts), baseDelayMs, maxDelayMs, false);
+    }
+    
+    public boolean shouldRetry(IOException e) {
+        // A read timeout or reset may come after the server already processed the request
+        return idempotent || isConnectFailure(e);
+    }
+    
+    public boolean shouldRetry(int statusCode) {
+        return idempotent && isServerFailure(statusCode);
+    }
+    
+    /**
+     * Exponential backoff with full jitter: a random delay in [0, min(max, base * 2^(attempt-1))]
+     * @param attempt Number of the attempt that just failed, starting from 1
+     */
+    public long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    public static boolean isServerFailure(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+    
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException
+                    || t instanceof HttpConnectTimeoutException
+                    || t instanceof UnknownHostException
+                    || t instanceof UnresolvedAddressException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package app.model;
+
+import java.util.Map;
+
+/**
+ * Running totals kept by the store. appliedByDay is keyed by ISO date,
+ * failuresByStatus by HTTP status code or "error" when there was no response.
+ */
+public record ApplyStats(
+    long appliedTotal,
+    long appliedToday,
+    long skips,
+    long failures,
+    Map<String, Long> appliedByDay,
+    Map<String, Long> failuresByStatus
+) {}
@@ -1,6 +1,7 @@
 package app.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import java.util.List;
@@ -8,6 +9,8 @@ import java.util.List;
 /**
  * Результат оценки соответствия вакансии и пользователя
  */
+// Порядок полей задаёт и порядок генерации по схеме: сначала оценки, потом вывод
+@JsonPropertyOrder({"jobToUserFit", "userToJobFit", "suggestion", "confidence"})
 public class EvaluationResult {
     
     public static class FitScore {
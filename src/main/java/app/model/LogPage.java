@@ -0,0 +1,11 @@
+package app.model;
+
+import java.util.List;
+
+/**
+ * One page of log history. nextCursor is null on the last page.
+ */
+public record LogPage(
+    List<ApplyLog> items,
+    String nextCursor
+) {}
@@ -2,10 +2,13 @@ package app.service;
 
 import app.config.Env;
 import app.hh.HhClient;
-import app.hh.parser.JsonSearchParser;
+import app.hh.SearchCrawler;
+import app.http.CircuitOpenException;
 import app.model.ApplyLog;
 import app.model.ApplyResult;
+import app.model.ApplyStats;
 import app.model.ApplySummary;
+import app.model.LogPage;
 import app.store.SqliteStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +16,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ApplyService {
@@ -22,14 +29,13 @@ public class ApplyService {
     
     private final Env env;
     private final HhClient hhClient;
-    private final JsonSearchParser jsonSearchParser;
+    private final SearchCrawler searchCrawler;
     private final SqliteStore store;
-    private final Random random = new Random();
     
-    public ApplyService(Env env, HhClient hhClient, JsonSearchParser jsonSearchParser, SqliteStore store) {
+    public ApplyService(Env env, HhClient hhClient, SearchCrawler searchCrawler, SqliteStore store) {
         this.env = env;
         this.hhClient = hhClient;
-        this.jsonSearchParser = jsonSearchParser;
+        this.searchCrawler = searchCrawler;
         this.store = store;
     }
     
@@ -41,76 +47,37 @@ public class ApplyService {
         LocalDateTime startTime = LocalDateTime.now();
         log.info("Starting vacancy application process");
         
-        int totalFound = 0;
-        int newVacancies = 0;
-        int applied = 0;
-        int errors = 0;
+        RunCounters counters = new RunCounters();
         
         try {
-            // Fetch search JSON
-            String searchJson = hhClient.fetchSearchJson();
+            // Crawl search pages into one ordered, de-duplicated set of vacancy IDs
+            Set<String> vacancyIds = searchCrawler.crawl(store::isApplied);
+            counters.totalFound.set(vacancyIds.size());
             
-            // Parse vacancy IDs from JSON
-            Set<String> vacancyIds = jsonSearchParser.extractVacancyIds(searchJson);
-            totalFound = vacancyIds.size();
+            int concurrency = Math.max(1, env.getApplyConcurrency());
+            log.info("Found {} vacancies to process (concurrency={})", vacancyIds.size(), concurrency);
             
-            log.info("Found {} vacancies to process", totalFound);
-            
-            // Process each vacancy
-            for (String vacancyId : vacancyIds) {
-                try {
-                    // Log found vacancy
-                    store.addLog(ApplyLog.found(vacancyId));
-                    
-                    // Check if already applied
-                    if (store.isApplied(vacancyId)) {
-                        store.addLog(ApplyLog.skip(vacancyId, "Already applied"));
-                        continue;
-                    }
-                    
-                    newVacancies++;
-                    
-                    // Optional: Register interaction
-                    hhClient.registerInteraction(vacancyId);
-                    
-                    // Apply to vacancy
-                    ApplyResult result = hhClient.applyMultipart(vacancyId);
-                    
-                    if (result.success()) {
-                        if (!env.isApplyDryRun()) {
-                            store.markApplied(vacancyId);
-                        }
-                        store.addLog(ApplyLog.applyOk(vacancyId));
-                        applied++;
-                        log.info("APPLY OK vacancyId={}", vacancyId);
-                    } else {
-                        store.addLog(ApplyLog.applyFail(vacancyId, "Status: " + result.statusCode()));
-                        errors++;
-                        log.error("APPLY FAIL vacancyId={} code={} message={}", 
-                                 vacancyId, result.statusCode(), result.message());
+            if (concurrency == 1) {
+                for (String vacancyId : vacancyIds) {
+                    if (counters.aborted.get()) {
+                        break;
                     }
-                    
-                    // Random delay between requests
-                    if (vacancyIds.size() > 1) {
-                        int delay = random.nextInt(
-                            env.getRateLimitMaxDelayMs() - env.getRateLimitMinDelayMs()
-                        ) + env.getRateLimitMinDelayMs();
-                        
-                        Thread.sleep(delay);
-                    }
-                    
-                } catch (Exception e) {
-                    errors++;
-                    store.addLog(ApplyLog.applyFail(vacancyId, e.getMessage()));
-                    log.error("Error processing vacancy {}", vacancyId, e);
+                    processVacancy(vacancyId, counters);
                 }
+            } else {
+                processConcurrently(vacancyIds, concurrency, counters);
             }
             
         } catch (Exception e) {
             log.error("Failed to run apply process", e);
-            errors++;
+            counters.errors.incrementAndGet();
         }
         
+        int totalFound = counters.totalFound.get();
+        int newVacancies = counters.newVacancies.get();
+        int applied = counters.applied.get();
+        int errors = counters.errors.get();
+        
         ApplySummary summary = ApplySummary.create(startTime, totalFound, newVacancies, applied, errors, env.isApplyDryRun());
         
         log.info("Apply process completed: found={}, new={}, applied={}, errors={}, dryRun={}", 
@@ -119,6 +86,90 @@ public class ApplyService {
         return summary;
     }
     
+    /**
+     * Runs one task per vacancy on virtual threads. The semaphore bounds how many
+     * applies are in flight; request pacing stays with the shared rate limiter.
+     */
+    private void processConcurrently(Set<String> vacancyIds, int concurrency, RunCounters counters) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String vacancyId : vacancyIds) {
+                inFlight.acquire();
+                if (counters.aborted.get()) {
+                    inFlight.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        processVacancy(vacancyId, counters);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+    
+    /**
+     * Handles a single vacancy: duplicate check, optional interaction, apply and logging
+     */
+    private void processVacancy(String vacancyId, RunCounters counters) {
+        try {
+            // Log found vacancy
+            store.addLog(ApplyLog.found(vacancyId));
+            
+            // Check if already applied
+            if (store.isApplied(vacancyId)) {
+                store.addLog(ApplyLog.skip(vacancyId, "Already applied"));
+                return;
+            }
+            
+            counters.newVacancies.incrementAndGet();
+            
+            // Optional: Register interaction
+            hhClient.registerInteraction(vacancyId);
+            
+            // Apply to vacancy
+            ApplyResult result = hhClient.applyMultipart(vacancyId);
+            
+            if (result.success()) {
+                if (!env.isApplyDryRun()) {
+                    store.markApplied(vacancyId);
+                }
+                store.addLog(ApplyLog.applyOk(vacancyId));
+                counters.applied.incrementAndGet();
+                log.info("APPLY OK vacancyId={}", vacancyId);
+            } else {
+                store.addLog(ApplyLog.applyFail(vacancyId, "Status: " + result.statusCode()));
+                counters.errors.incrementAndGet();
+                log.error("APPLY FAIL vacancyId={} code={} message={}", 
+                         vacancyId, result.statusCode(), result.message());
+            }
+        } catch (CircuitOpenException e) {
+            counters.errors.incrementAndGet();
+            store.addLog(ApplyLog.applyFail(vacancyId, e.getMessage()));
+            if (counters.aborted.compareAndSet(false, true)) {
+                log.error("hh.ru looks unavailable, stopping the run: {}", e.getMessage());
+            }
+        } catch (Exception e) {
+            counters.errors.incrementAndGet();
+            store.addLog(ApplyLog.applyFail(vacancyId, e.getMessage()));
+            log.error("Error processing vacancy {}", vacancyId, e);
+        }
+    }
+    
+    /**
+     * Per-run counters, safe to update from concurrent apply tasks
+     */
+    private static final class RunCounters {
+        final AtomicInteger totalFound = new AtomicInteger();
+        final AtomicInteger newVacancies = new AtomicInteger();
+        final AtomicInteger applied = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicBoolean aborted = new AtomicBoolean();
+    }
+    
     /**
      * Gets recent logs
      * @param limit Maximum number of logs to return
@@ -129,10 +180,22 @@ public class ApplyService {
     }
     
     /**
-     * Gets total applied count
-     * @return Number of applied vacancies
+     * Gets a page of log history, newest first
+     * @param action Action filter, or null
+     * @param vacancyId Vacancy filter, or null
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return Logs and the cursor for the next page
+     */
+    public LogPage getLogHistory(String action, String vacancyId, String cursor, int limit) {
+        return store.getLogs(action, vacancyId, cursor, limit);
+    }
+    
+    /**
+     * Gets dashboard counters; cheap enough to poll
+     * @return Applied totals, skips and failures
      */
-    public int getAppliedCount() {
-        return store.getAppliedCount();
+    public ApplyStats getStats() {
+        return store.getStats();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,210 @@
+package app.service;
+
+import app.model.EvaluationResult;
+import app.model.UserProfile;
+import app.model.Vacancy;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш оценок LLM. Ключ - хэш содержимого вакансии, профиля, модели и версии промпта,
+ * поэтому изменение любого из них даёт новый ключ. Результаты хранятся в SQLite в виде JSON,
+ * перед ними - LRU в памяти. Когда у вакансии меняется содержимое, её старые оценки удаляются.
+ */
+public class EvaluationCache {
+    private static final Logger log = LoggerFactory.getLogger(EvaluationCache.class);
+    
+    /**
+     * Постоянный уровень кэша
+     */
+    public interface Store {
+        Optional<String> load(String key) throws Exception;
+        
+        /**
+         * Сохраняет оценку и удаляет оценки этой вакансии с другим хэшем содержимого
+         * @return сколько старых оценок удалено
+         */
+        int save(String key, String vacancyId, String contentHash, String model, String resultJson) throws Exception;
+    }
+    
+    /**
+     * Ключ оценки и хэш содержимого вакансии, из которого он получен
+     */
+    public record Key(String value, String vacancyId, String contentHash, String model) {}
+    
+    public record Snapshot(int size, int maxSize, long hits, long storeHits, long misses, long stored,
+                           long invalidated, double hitRate) {}
+    
+    private record Entry(String vacancyId, String contentHash, String resultJson) {}
+    
+    private final Store store;
+    private final int maxSize;
+    private final String promptVersion;
+    private final Map<String, Entry> entries;
+    // Сортированные поля дают одинаковый JSON профиля при любом порядке заполнения
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    
+    /**
+     * @param store постоянный уровень или null
+     * @param maxSize сколько оценок держать в памяти
+     * @param promptVersion версия промпта: при изменении промпта старые оценки перестают совпадать
+     */
+    public EvaluationCache(Store store, int maxSize, String promptVersion) {
+        this.store = store;
+        this.maxSize = Math.max(1, maxSize);
+        this.promptVersion = promptVersion;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > EvaluationCache.this.maxSize;
+            }
+        };
+    }
+    
+    public Key key(Vacancy vacancy, UserProfile profile, String model) {
+        String contentHash = contentHash(vacancy);
+        String profileJson;
+        try {
+            profileJson = canonicalMapper.writeValueAsString(profile);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Профиль не сериализуется: " + e.getMessage(), e);
+        }
+        String value = sha256(String.join("\u0000", promptVersion, model, contentHash, sha256(profileJson)));
+        return new Key(value, vacancy.getId(), contentHash, model);
+    }
+    
+    /**
+     * Хэш нормализованных полей вакансии: пробелы схлопнуты, пустые значения равны отсутствующим
+     */
+    static String contentHash(Vacancy vacancy) {
+        StringBuilder content = new StringBuilder();
+        for (String field : List.of(
+                normalize(vacancy.getTitle()),
+                normalize(vacancy.getCompany()),
+                normalize(vacancy.getLocation()),
+                normalize(vacancy.getSalaryRaw()),
+                vacancy.getSkills() == null ? "" : normalize(String.join(",", vacancy.getSkills())),
+                normalize(vacancy.getDescription()),
+                normalize(vacancy.getEmploymentType()),
+                normalize(vacancy.getWorkFormat()))) {
+            content.append(field).append('\u0000');
+        }
+        return sha256(content.toString());
+    }
+    
+    public Optional<EvaluationResult> get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key.value());
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return Optional.of(read(entry.resultJson()));
+        }
+        
+        if (store != null) {
+            try {
+                Optional<String> json = store.load(key.value());
+                if (json.isPresent()) {
+                    EvaluationResult result = read(json.get());
+                    storeHits.incrementAndGet();
+                    remember(key, json.get());
+                    return Optional.of(result);
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось прочитать оценку из БД: {}", e.getMessage());
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+    
+    public void put(Key key, EvaluationResult result) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            log.warn("Оценка вакансии {} не сериализуется: {}", key.vacancyId(), e.getMessage());
+            return;
+        }
+        remember(key, json);
+        stored.incrementAndGet();
+        if (store != null) {
+            try {
+                int removed = store.save(key.value(), key.vacancyId(), key.contentHash(), key.model(), json);
+                if (removed > 0) {
+                    invalidated.addAndGet(removed);
+                    log.info("Вакансия {} изменилась, удалено старых оценок: {}", key.vacancyId(), removed);
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось сохранить оценку вакансии {}: {}", key.vacancyId(), e.getMessage());
+            }
+        }
+    }
+    
+    public Snapshot snapshot() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long hitCount = hits.get() + storeHits.get();
+        long total = hitCount + misses.get();
+        return new Snapshot(size, maxSize, hits.get(), storeHits.get(), misses.get(), stored.get(),
+                invalidated.get(), total == 0 ? 0.0 : (double) hitCount / total);
+    }
+    
+    private synchronized void remember(Key key, String json) {
+        // Оценки этой вакансии по старому содержимому больше не совпадут ни с одним ключом
+        entries.values().removeIf(entry -> entry.vacancyId().equals(key.vacancyId())
+                && !entry.contentHash().equals(key.contentHash()));
+        entries.put(key.value(), new Entry(key.vacancyId(), key.contentHash(), json));
+    }
+    
+    /**
+     * Каждый вызов получает свою копию: результат можно менять, не портя кэш
+     */
+    private EvaluationResult read(String json) {
+        try {
+            return objectMapper.readValue(json, EvaluationResult.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Повреждённая оценка в кэше: " + e.getMessage(), e);
+        }
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.strip().replaceAll("\\s+", " ");
+    }
+    
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package app.service;
+
+import app.config.OllamaProperties;
+import app.model.EvaluationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Маршрутизация оценки между моделями: каждую вакансию сначала оценивает быстрая модель,
+ * и только пограничный результат (нижний из двух скоров в полосе неопределённости
+ * или низкая уверенность) переоценивается основной моделью. Без модели предварительной
+ * оценки все вакансии сразу идут к основной.
+ */
+public class EvaluationRouter {
+    private static final Logger log = LoggerFactory.getLogger(EvaluationRouter.class);
+    
+    /**
+     * Оценка одной моделью; результат уже приведён к допустимым значениям
+     */
+    @FunctionalInterface
+    public interface Evaluator {
+        EvaluationResult evaluate(String model) throws Exception;
+    }
+    
+    public record TierSnapshot(String model, long calls, long failures, double avgMs, long maxMs) {}
+    
+    /**
+     * @param agreements переоценённые результаты, где обе модели дали одну рекомендацию
+     * @param avgScoreDelta средняя разница нижнего скора между моделями на переоценённых результатах
+     */
+    public record Snapshot(boolean enabled, long evaluations, long escalations, double escalationRate,
+                           long agreements, double agreementRate, double avgScoreDelta,
+                           TierSnapshot triage, TierSnapshot main) {}
+    
+    private static final class Tier {
+        private final String model;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        Tier(String model) {
+            this.model = model;
+        }
+        
+        EvaluationResult evaluate(Evaluator evaluator) throws Exception {
+            long start = System.nanoTime();
+            try {
+                return evaluator.evaluate(model);
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                calls.incrementAndGet();
+                totalNanos.addAndGet(elapsed);
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+        
+        TierSnapshot snapshot() {
+            long count = calls.get();
+            return new TierSnapshot(model, count, failures.get(),
+                    count == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / count, maxNanos.get() / 1_000_000);
+        }
+    }
+    
+    private final OllamaProperties.Escalation band;
+    private final Tier triage;
+    private final Tier main;
+    
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong escalations = new AtomicLong();
+    private final AtomicLong compared = new AtomicLong();
+    private final AtomicLong agreements = new AtomicLong();
+    private final AtomicLong totalScoreDelta = new AtomicLong();
+    
+    public EvaluationRouter(OllamaProperties properties) {
+        this.band = properties.escalation();
+        this.triage = properties.isRoutingEnabled() ? new Tier(properties.triageModel()) : null;
+        this.main = new Tier(properties.model());
+    }
+    
+    /**
+     * Модели и полоса переоценки одной строкой: входит в ключ кэша оценок,
+     * чтобы смена маршрутизации не отдавала оценки, полученные по старым правилам
+     */
+    public String describe() {
+        if (triage == null) {
+            return main.model;
+        }
+        return triage.model + ">" + main.model + "@" + band.scoreMin() + "-" + band.scoreMax()
+                + "/" + band.minConfidence();
+    }
+    
+    /**
+     * Оценивает вакансию быстрой моделью и, если результат пограничный, основной.
+     * Невалидный ответ быстрой модели тоже переоценивается; если не ответила основная модель,
+     * остаётся результат быстрой
+     */
+    public EvaluationResult evaluate(Evaluator evaluator) throws Exception {
+        evaluations.incrementAndGet();
+        if (triage == null) {
+            return main.evaluate(evaluator);
+        }
+        
+        EvaluationResult preliminary;
+        try {
+            preliminary = triage.evaluate(evaluator);
+        } catch (InvalidModelOutputException e) {
+            log.warn("Модель {} вернула невалидный ответ, переоцениваем моделью {}", triage.model, main.model);
+            escalations.incrementAndGet();
+            return main.evaluate(evaluator);
+        }
+        if (!isUncertain(preliminary)) {
+            return preliminary;
+        }
+        
+        escalations.incrementAndGet();
+        log.info("Пограничная оценка {} (скор {}, уверенность {}), переоцениваем моделью {}",
+                triage.model, lowerScore(preliminary), preliminary.getConfidence(), main.model);
+        EvaluationResult result;
+        try {
+            result = main.evaluate(evaluator);
+        } catch (InvalidModelOutputException e) {
+            log.warn("Модель {} вернула невалидный ответ, оставляем оценку {}", main.model, triage.model);
+            return preliminary;
+        }
+        compared.incrementAndGet();
+        if (result.getSuggestion() != null && result.getSuggestion().equals(preliminary.getSuggestion())) {
+            agreements.incrementAndGet();
+        }
+        totalScoreDelta.addAndGet(Math.abs(lowerScore(result) - lowerScore(preliminary)));
+        return result;
+    }
+    
+    public Snapshot snapshot() {
+        long count = evaluations.get();
+        long escalated = escalations.get();
+        long comparisons = compared.get();
+        return new Snapshot(triage != null, count, escalated, count == 0 ? 0.0 : (double) escalated / count,
+                agreements.get(), comparisons == 0 ? 0.0 : (double) agreements.get() / comparisons,
+                comparisons == 0 ? 0.0 : (double) totalScoreDelta.get() / comparisons,
+                triage != null ? triage.snapshot() : null, main.snapshot());
+    }
+    
+    private boolean isUncertain(EvaluationResult result) {
+        int score = lowerScore(result);
+        return score >= band.scoreMin() && score <= band.scoreMax() || result.getConfidence() < band.minConfidence();
+    }
+    
+    /**
+     * Рекомендация зависит от обоих скоров, поэтому решает меньший из них
+     */
+    private static int lowerScore(EvaluationResult result) {
+        int jobToUser = result.getJobToUserFit() != null ? result.getJobToUserFit().getScore() : 0;
+        int userToJob = result.getUserToJobFit() != null ? result.getUserToJobFit().getScore() : 0;
+        return Math.min(jobToUser, userToJob);
+    }
+}
@@ -0,0 +1,44 @@
+package app.service;
+
+import app.hh.HhClient;
+import app.hh.parser.VacancyPageParser;
+import app.model.Vacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/**
+ * Загружает страницу вакансии обычным HTTP-запросом через HhClient (с куками пользователя)
+ * и разбирает серверный HTML через Jsoup, без запуска браузера
+ */
+public class HttpVacancyFetcher implements VacancyFetcher {
+    private static final Logger log = LoggerFactory.getLogger(HttpVacancyFetcher.class);
+    
+    private final HhClient hhClient;
+    private final VacancyPageParser parser;
+    
+    public HttpVacancyFetcher(HhClient hhClient, VacancyPageParser parser) {
+        this.hhClient = hhClient;
+        this.parser = parser;
+    }
+    
+    @Override
+    public Optional<Vacancy> fetch(String vacancyId) {
+        String url = hhClient.getVacancyUrl(vacancyId);
+        try {
+            long start = System.nanoTime();
+            Vacancy vacancy = hhClient.fetchVacancyPage(vacancyId, body -> parser.parse(body, vacancyId, url));
+            if (vacancy.getTitle() == null) {
+                // Вместо вакансии пришла другая страница (капча, вход и т.п.)
+                log.warn("На странице вакансии {} не найден заголовок", vacancyId);
+                return Optional.empty();
+            }
+            log.info("Вакансия {} загружена по HTTP за {} мс", vacancyId, (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(vacancy);
+        } catch (Exception e) {
+            log.error("Ошибка при загрузке вакансии {} по HTTP: {}", vacancyId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
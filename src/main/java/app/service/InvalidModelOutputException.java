@@ -0,0 +1,11 @@
+package app.service;
+
+/**
+ * Ответ модели не разбирается как JSON или не привязывается к ожидаемому типу
+ */
+public class InvalidModelOutputException extends RuntimeException {
+    
+    public InvalidModelOutputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,62 @@
+package app.service;
+
+/**
+ * Следит за потоком текста от модели и замечает, когда закрылся верхнеуровневый JSON-объект.
+ * Текст до первой '{' пропускается; скобки внутри строк и экранированные кавычки не считаются.
+ */
+class JsonObjectTracker {
+    private final StringBuilder json = new StringBuilder();
+    private int depth;
+    private boolean started;
+    private boolean inString;
+    private boolean escaped;
+    private boolean complete;
+    
+    /**
+     * Добавляет очередной фрагмент; всё после закрывающей скобки отбрасывается
+     * @return true, если объект закрылся в этом или одном из прошлых фрагментов
+     */
+    boolean append(String chunk) {
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            char c = chunk.charAt(i);
+            if (!started) {
+                if (c != '{') {
+                    continue;
+                }
+                started = true;
+            }
+            json.append(c);
+            
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    complete = true;
+                }
+            }
+        }
+        return complete;
+    }
+    
+    boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Текст объекта от первой '{'; если объект не закрылся - то, что успело прийти
+     */
+    String json() {
+        return json.toString();
+    }
+}
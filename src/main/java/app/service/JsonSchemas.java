@@ -0,0 +1,68 @@
+package app.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Set;
+
+/**
+ * JSON Schema для параметра format Ollama, построенная по свойствам модели так же,
+ * как их видит Jackson при привязке ответа. Все свойства обязательны: модель не может
+ * пропустить поле. Свойства JsonNode (сырой ответ) в схему не попадают.
+ */
+final class JsonSchemas {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private JsonSchemas() {}
+    
+    /**
+     * @param ignored имена свойств верхнего уровня, которые модель заполнять не должна
+     */
+    static ObjectNode forType(Class<?> type, Set<String> ignored) {
+        return schemaFor(MAPPER.constructType(type), ignored);
+    }
+    
+    private static ObjectNode schemaFor(JavaType type, Set<String> ignored) {
+        ObjectNode schema = MAPPER.createObjectNode();
+        Class<?> raw = type.getRawClass();
+        if (CharSequence.class.isAssignableFrom(raw)) {
+            schema.put("type", "string");
+        } else if (raw == int.class || raw == long.class || raw == short.class
+                || raw == Integer.class || raw == Long.class || raw == Short.class) {
+            schema.put("type", "integer");
+        } else if (raw.isPrimitive() && raw != boolean.class || Number.class.isAssignableFrom(raw)) {
+            schema.put("type", "number");
+        } else if (raw == boolean.class || raw == Boolean.class) {
+            schema.put("type", "boolean");
+        } else if (raw.isEnum()) {
+            schema.put("type", "string");
+            ArrayNode values = schema.putArray("enum");
+            for (Object constant : raw.getEnumConstants()) {
+                values.add(constant.toString());
+            }
+        } else if (type.isCollectionLikeType() || type.isArrayType()) {
+            schema.put("type", "array");
+            schema.set("items", schemaFor(type.getContentType(), Set.of()));
+        } else if (type.isMapLikeType()) {
+            schema.put("type", "object");
+            schema.set("additionalProperties", schemaFor(type.getContentType(), Set.of()));
+        } else {
+            schema.put("type", "object");
+            ObjectNode properties = schema.putObject("properties");
+            ArrayNode required = schema.putArray("required");
+            for (BeanPropertyDefinition property : MAPPER.getSerializationConfig().introspect(type).findProperties()) {
+                JavaType propertyType = property.getPrimaryType();
+                if (ignored.contains(property.getName()) || JsonNode.class.isAssignableFrom(propertyType.getRawClass())) {
+                    continue;
+                }
+                properties.set(property.getName(), schemaFor(propertyType, Set.of()));
+                required.add(property.getName());
+            }
+        }
+        return schema;
+    }
+}
@@ -1,22 +1,22 @@
 package app.service;
 
+import app.config.Env;
+import app.config.OllamaProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.ollama4j.OllamaAPI;
-import io.github.ollama4j.models.chat.OllamaChatMessage;
-import io.github.ollama4j.models.chat.OllamaChatMessageRole;
-import io.github.ollama4j.models.chat.OllamaChatRequest;
-import io.github.ollama4j.models.chat.OllamaChatResult;
 import io.github.ollama4j.models.response.Model;
-import io.github.ollama4j.utils.OptionsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Клиент для работы с Ollama API
@@ -25,149 +25,151 @@ import java.util.regex.Pattern;
 public class OllamaClient {
     private static final Logger log = LoggerFactory.getLogger(OllamaClient.class);
     
-    private final OllamaAPI ollamaAPI;
     private final ObjectMapper objectMapper;
-    private static final String DEFAULT_MODEL = "llama3:8b";
-    private static final String DEFAULT_BASE_URL = "http://localhost:11434";
+    private final OllamaHealthMonitor healthMonitor;
+    private final OllamaScheduler scheduler;
+    private final OllamaStreamingChat streamingChat;
+    private final Settings settings;
+    private final OllamaProperties properties;
+    private final Map<String, Object> generationOptions;
+    private final AtomicLong structuredRequests = new AtomicLong();
+    private final AtomicLong invalidOutputs = new AtomicLong();
+    private static final String SYSTEM_PROMPT =
+            "Ты - эксперт по оценке соответствия вакансий и кандидатов. Отвечай строго в JSON формате.";
+    private static final int PROBE_TIMEOUT_SEC = 3;
+    private static final long HEALTHY_PROBE_INTERVAL_MS = 30_000;
+    private static final long UNHEALTHY_PROBE_INTERVAL_MS = 5_000;
+    
+    /**
+     * Очередь запросов к модели
+     * @param maxInFlight сколько запросов отправлять одновременно; как OLLAMA_NUM_PARALLEL сервера
+     * @param queueCapacity сколько запросов может ждать; лишние отклоняются сразу
+     * @param timeoutSec срок запроса, включая очередь
+     * @param streaming читать ответ потоком и останавливать генерацию, как только закрылся JSON
+     */
+    public record Settings(int maxInFlight, int queueCapacity, int timeoutSec, boolean streaming) {
+        
+        public static Settings defaults() {
+            return new Settings(1, 32, 60, true);
+        }
+    }
     
     public OllamaClient() {
-        this.ollamaAPI = new OllamaAPI(DEFAULT_BASE_URL);
-        this.ollamaAPI.setRequestTimeoutSeconds(30);
-        this.objectMapper = new ObjectMapper();
+        this(Settings.defaults(), OllamaProperties.defaults());
+    }
+    
+    @Autowired
+    public OllamaClient(Env env, OllamaProperties properties) {
+        this(new Settings(env.getOllamaMaxInFlight(), env.getOllamaQueueCapacity(), env.getOllamaTimeoutSec(),
+                env.isOllamaStreaming()), properties);
+    }
+    
+    public OllamaClient(Settings settings, OllamaProperties properties) {
+        this.settings = settings;
+        this.properties = properties;
+        this.generationOptions = Map.of("temperature", properties.temperature(), "top_p", properties.topP(),
+                "mirostat", properties.mirostat());
+        // Лишние поля в ответе модели не делают его невалидным
+        this.objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.scheduler = new OllamaScheduler(settings.maxInFlight(), settings.queueCapacity());
+        this.streamingChat = new OllamaStreamingChat(properties.baseUrl(), Duration.ofSeconds(PROBE_TIMEOUT_SEC),
+                properties.keepAlive());
+        
+        // Клиент проверки доступности с коротким таймаутом: проверка не должна висеть 30 секунд
+        OllamaAPI probeAPI = new OllamaAPI(properties.baseUrl());
+        probeAPI.setRequestTimeoutSeconds(PROBE_TIMEOUT_SEC);
+        this.healthMonitor = new OllamaHealthMonitor(
+                () -> probeAPI.listModels().stream().map(Model::getName).toList(),
+                HEALTHY_PROBE_INTERVAL_MS, UNHEALTHY_PROBE_INTERVAL_MS, PROBE_TIMEOUT_SEC * 1000L);
+        log.info("Ollama {}: модель {}{}", properties.baseUrl(), properties.model(),
+                properties.isRoutingEnabled() ? ", предварительная оценка моделью " + properties.triageModel() : "");
     }
     
     /**
-     * Проверяет доступность Ollama
+     * Проверяет доступность Ollama по результату последней фоновой проверки, без запроса к серверу
      */
     public boolean isAvailable() {
-        try {
-            List<Model> models = ollamaAPI.listModels();
-            log.info("Доступные модели Ollama: {}", models);
-            return !models.isEmpty();
-        } catch (Exception e) {
-            log.debug("Ollama недоступна: {}", e.getMessage());
-            return false;
-        }
+        return healthMonitor.isHealthy();
+    }
+    
+    public OllamaHealthMonitor.Snapshot getHealth() {
+        return healthMonitor.snapshot();
+    }
+    
+    public OllamaScheduler.Snapshot getSchedulerMetrics() {
+        return scheduler.snapshot();
+    }
+    
+    public OllamaStreamingChat.Snapshot getStreamingMetrics() {
+        return streamingChat.snapshot();
     }
     
     /**
-     * Получает список доступных моделей
+     * Настройки ollama.* из application.properties, включая маршрутизацию между моделями
      */
-    public List<Model> getAvailableModels() {
-        try {
-            return ollamaAPI.listModels();
-        } catch (Exception e) {
-            log.error("Ошибка получения списка моделей: {}", e.getMessage());
-            return List.of();
-        }
+    public OllamaProperties getProperties() {
+        return properties;
     }
     
     /**
-     * Генерирует ответ на промпт
+     * Ответ модели, привязанный к типу, вместе с исходным JSON
      */
-    public String generate(String prompt) throws Exception {
-        log.info("Отправляем запрос к Ollama с моделью: {}", DEFAULT_MODEL);
-        
-        try {
-            // Создаем системное сообщение
-            OllamaChatMessage systemMessage = new OllamaChatMessage();
-            systemMessage.setRole(OllamaChatMessageRole.SYSTEM);
-            systemMessage.setContent("Ты - эксперт по оценке соответствия вакансий и кандидатов. Отвечай строго в JSON формате.");
-            
-            // Создаем пользовательское сообщение
-            OllamaChatMessage userMessage = new OllamaChatMessage();
-            userMessage.setRole(OllamaChatMessageRole.USER);
-            userMessage.setContent(prompt);
-            
-            // Создаем запрос
-            OllamaChatRequest request = new OllamaChatRequest();
-            request.setModel(DEFAULT_MODEL);
-            request.setMessages(new ArrayList<>(List.of(systemMessage, userMessage)));
-            request.setStream(false);
-            request.setOptions(new OptionsBuilder().setTemperature(0.1f).setTopP(0.9f).build().getOptionsMap());
-            
-            // Отправляем запрос
-            OllamaChatResult result = ollamaAPI.chat(request);
-            
-            if (result != null && result.getResponseModel().getMessage() != null) {
-                String response = result.getResponseModel().getMessage().getContent();
-                log.info("Получен ответ от Ollama, длина: {} символов", response.length());
-                
-                // Извлекаем JSON из ответа
-                return extractJsonFromResponse(response);
-            } else {
-                throw new RuntimeException("Пустой ответ от Ollama");
-            }
-            
-        } catch (Exception e) {
-            log.error("Ошибка при вызове Ollama: {}", e.getMessage(), e);
-            throw new RuntimeException("Ошибка вызова Ollama: " + e.getMessage(), e);
-        }
-    }
+    public record Structured<T>(T value, JsonNode json) {}
+    
+    public record StructuredSnapshot(long requests, long invalidOutputs, double invalidRate) {}
     
     /**
-     * Извлекает JSON из ответа LLM
+     * Генерирует ответ, ограниченный JSON Schema (параметр format Ollama), и привязывает его к типу.
+     * Модель не может выдать текст вне схемы, поэтому разбор не требует поиска JSON в ответе
+     * @throws InvalidModelOutputException ответ не разобрался или не привязался к типу
      */
-    private String extractJsonFromResponse(String response) {
-        if (response == null || response.trim().isEmpty()) {
-            return "{}";
-        }
-        
-        // Ищем JSON в фигурных скобках
-        Pattern pattern = Pattern.compile("\\{.*\\}", Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(response);
-        
-        if (matcher.find()) {
-            String json = matcher.group();
-            log.debug("Извлечен JSON из ответа: {}", json);
-            return json;
-        }
-        
-        // Если JSON не найден, возвращаем весь ответ
-        log.warn("JSON не найден в ответе, возвращаем весь текст");
-        return response;
+    public <T> Structured<T> generateStructured(String prompt, Class<T> type, JsonNode schema) throws Exception {
+        return generateStructured(SYSTEM_PROMPT, prompt, type, schema, properties.model());
     }
     
     /**
-     * Генерирует ответ с указанной моделью
+     * То же со своим системным сообщением и моделью. Неизменный между запросами system сервер берёт
+     * из кэша промпта, поэтому общую часть серии запросов стоит держать в нём, а в prompt -
+     * только то, что меняется
      */
-    public String generateWithModel(String prompt, String model) throws Exception {
-        log.info("Отправляем запрос к Ollama с моделью: {}", model);
+    public <T> Structured<T> generateStructured(String system, String prompt, Class<T> type, JsonNode schema,
+                                                String model) throws Exception {
+        log.info("Отправляем запрос к Ollama с моделью {} и схемой ответа {}", model, type.getSimpleName());
+        structuredRequests.incrementAndGet();
         
+        OllamaStreamingChat.Result result;
         try {
-            // Создаем системное сообщение
-            OllamaChatMessage systemMessage = new OllamaChatMessage();
-            systemMessage.setRole(OllamaChatMessageRole.SYSTEM);
-            systemMessage.setContent("Ты - эксперт по оценке соответствия вакансий и кандидатов. Отвечай строго в JSON формате.");
-            
-            // Создаем пользовательское сообщение
-            OllamaChatMessage userMessage = new OllamaChatMessage();
-            userMessage.setRole(OllamaChatMessageRole.USER);
-            userMessage.setContent(prompt);
-            
-            // Создаем запрос
-            OllamaChatRequest request = new OllamaChatRequest();
-            request.setModel(model);
-            request.setMessages(List.of(systemMessage, userMessage));
-            request.setStream(false);
-            request.setOptions(new OptionsBuilder().setTemperature(0.1f).setTopP(0.9f).build().getOptionsMap());
-            
-            // Отправляем запрос
-            OllamaChatResult result = ollamaAPI.chat(request);
-            
-            if (result != null && result.getResponseModel().getMessage() != null) {
-                String response = result.getResponseModel().getMessage().getContent();
-                log.info("Получен ответ от Ollama, длина: {} символов", response.length());
-                
-                // Извлекаем JSON из ответа
-                return extractJsonFromResponse(response);
-            } else {
-                throw new RuntimeException("Пустой ответ от Ollama");
-            }
-            
+            long timeoutMs = settings.timeoutSec() * 1000L;
+            result = scheduler.call(timeoutMs, () -> streamingChat.chat(model, system,
+                    prompt, generationOptions, schema, settings.streaming(), Duration.ofMillis(timeoutMs)));
         } catch (Exception e) {
+            healthMonitor.recordFailure(e);
             log.error("Ошибка при вызове Ollama с моделью {}: {}", model, e.getMessage(), e);
             throw new RuntimeException("Ошибка вызова Ollama: " + e.getMessage(), e);
         }
+        
+        try {
+            JsonNode json = objectMapper.readTree(result.content());
+            return new Structured<>(objectMapper.treeToValue(json, type), json);
+        } catch (Exception e) {
+            invalidOutputs.incrementAndGet();
+            log.warn("Ответ модели не соответствует {}: {}", type.getSimpleName(), e.getMessage());
+            throw new InvalidModelOutputException("Ответ модели не соответствует " + type.getSimpleName(), e);
+        }
+    }
+    
+    public StructuredSnapshot getStructuredMetrics() {
+        long requests = structuredRequests.get();
+        return new StructuredSnapshot(requests, invalidOutputs.get(),
+                requests == 0 ? 0.0 : (double) invalidOutputs.get() / requests);
+    }
+    
+    /**
+     * Останавливает фоновую проверку доступности и отменяет запросы в очереди
+     */
+    @PreDestroy
+    public void close() {
+        healthMonitor.close();
+        scheduler.close();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,158 @@
+package app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Доступность Ollama, проверяемая в фоне. Горячий путь читает только volatile-флаг:
+ * проверка списком моделей идёт по расписанию - реже, пока Ollama доступна, и чаще, пока нет.
+ * Сетевая ошибка любого вызова сразу помечает Ollama недоступной до следующей удачной проверки.
+ */
+public class OllamaHealthMonitor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(OllamaHealthMonitor.class);
+    
+    public record Snapshot(boolean healthy, List<String> models, String lastProbeAt, long lastProbeMs,
+                           String lastError, long probes, long probeFailures, long callFailures,
+                           long transitions) {}
+    
+    private final Callable<List<String>> probe;
+    private final long healthyIntervalMs;
+    private final long unhealthyIntervalMs;
+    private final long firstProbeWaitMs;
+    private final ScheduledExecutorService scheduler;
+    private final CountDownLatch firstProbe = new CountDownLatch(1);
+    
+    private volatile boolean healthy;
+    private volatile List<String> models = List.of();
+    private volatile LocalDateTime lastProbeAt;
+    private volatile long lastProbeMs;
+    private volatile String lastError;
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong probeFailures = new AtomicLong();
+    private final AtomicLong callFailures = new AtomicLong();
+    private final AtomicLong transitions = new AtomicLong();
+    
+    /**
+     * @param probe запрос списка моделей; пустой список считается недоступностью
+     * @param firstProbeWaitMs сколько {@link #isHealthy()} ждёт первой проверки после запуска
+     */
+    public OllamaHealthMonitor(Callable<List<String>> probe, long healthyIntervalMs, long unhealthyIntervalMs,
+                               long firstProbeWaitMs) {
+        this.probe = probe;
+        this.healthyIntervalMs = Math.max(1000, healthyIntervalMs);
+        this.unhealthyIntervalMs = Math.max(500, unhealthyIntervalMs);
+        this.firstProbeWaitMs = firstProbeWaitMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ollama-health").daemon(true).factory());
+        scheduler.execute(this::probeAndReschedule);
+    }
+    
+    /**
+     * Последнее известное состояние. Только сразу после запуска ждёт первую проверку,
+     * чтобы первый вызов не получил "недоступна" раньше, чем Ollama успели спросить
+     */
+    public boolean isHealthy() {
+        if (firstProbe.getCount() > 0) {
+            try {
+                firstProbe.await(firstProbeWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return healthy;
+    }
+    
+    public List<String> getModels() {
+        return models;
+    }
+    
+    /**
+     * Вызов Ollama завершился ошибкой. Сетевые ошибки (нет соединения, таймаут) сразу
+     * переводят Ollama в недоступные; ошибки самого ответа на состояние не влияют
+     */
+    public void recordFailure(Throwable error) {
+        if (!isConnectionError(error)) {
+            return;
+        }
+        callFailures.incrementAndGet();
+        lastError = error.getMessage();
+        setHealthy(false);
+    }
+    
+    public Snapshot snapshot() {
+        LocalDateTime at = lastProbeAt;
+        return new Snapshot(healthy, models, at == null ? null : at.toString(), lastProbeMs, lastError,
+                probes.get(), probeFailures.get(), callFailures.get(), transitions.get());
+    }
+    
+    private void probeAndReschedule() {
+        long start = System.nanoTime();
+        try {
+            List<String> found = probe.call();
+            if (!found.equals(models)) {
+                log.info("Доступные модели Ollama: {}", found);
+            }
+            models = List.copyOf(found);
+            if (found.isEmpty()) {
+                lastError = "нет загруженных моделей";
+                probeFailures.incrementAndGet();
+            }
+            setHealthy(!found.isEmpty());
+        } catch (Exception e) {
+            probeFailures.incrementAndGet();
+            lastError = e.getMessage();
+            log.debug("Ollama недоступна: {}", e.getMessage());
+            setHealthy(false);
+        } finally {
+            probes.incrementAndGet();
+            lastProbeAt = LocalDateTime.now();
+            lastProbeMs = (System.nanoTime() - start) / 1_000_000;
+            firstProbe.countDown();
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::probeAndReschedule, healthy ? healthyIntervalMs : unhealthyIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private synchronized void setHealthy(boolean value) {
+        // Первую проверку логируем всегда, дальше - только смену состояния
+        boolean changed = healthy != value;
+        if (!changed && firstProbe.getCount() == 0) {
+            return;
+        }
+        healthy = value;
+        if (changed) {
+            transitions.incrementAndGet();
+        }
+        if (value) {
+            log.info("Ollama доступна");
+        } else {
+            log.warn("Ollama недоступна: {}", lastError);
+        }
+    }
+    
+    private static boolean isConnectionError(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,197 @@
+package app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Очередь запросов к Ollama. Одновременно к серверу уходит не больше maxInFlight запросов -
+ * столько, сколько модель обслуживает параллельно; остальные ждут в ограниченной очереди
+ * в порядке поступления. У каждого запроса свой срок: истёкший запрос не отправляется,
+ * а выполняющийся прерывается.
+ */
+public class OllamaScheduler implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(OllamaScheduler.class);
+    
+    public record Snapshot(int maxInFlight, int inFlight, int queued, int queueCapacity, long submitted,
+                           long completed, long failed, long rejected, long expired, long cancelled,
+                           double avgQueueWaitMs, long maxQueueWaitMs, double avgInferenceMs, long maxInferenceMs) {}
+    
+    private static final class Task<T> extends FutureTask<T> {
+        private final long enqueuedNanos = System.nanoTime();
+        private final long deadlineNanos;
+        
+        Task(Callable<T> callable, long deadlineNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+        }
+        
+        void expire() {
+            setException(new TimeoutException("Запрос к Ollama не дождался очереди"));
+        }
+    }
+    
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final LinkedBlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean closed;
+    
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalInferenceNanos = new AtomicLong();
+    private final AtomicLong maxInferenceNanos = new AtomicLong();
+    
+    public OllamaScheduler(int maxInFlight, int queueCapacity) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        for (int i = 0; i < this.maxInFlight; i++) {
+            Thread worker = Thread.ofPlatform().name("ollama-worker-" + i).daemon(true).start(this::work);
+            workers.add(worker);
+        }
+        log.info("Очередь Ollama: до {} запросов одновременно, до {} в очереди", this.maxInFlight, this.queueCapacity);
+    }
+    
+    /**
+     * Выполняет запрос в очереди и ждёт результат не дольше timeoutMs с момента постановки.
+     * По истечении срока или при прерывании ждущего потока запрос отменяется
+     * @throws RejectedExecutionException очередь заполнена
+     * @throws TimeoutException срок истёк
+     */
+    public <T> T call(long timeoutMs, Callable<T> callable) throws Exception {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Task<T> task = submit(deadlineNanos, callable);
+        try {
+            return task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel(task);
+            throw new TimeoutException("Ollama не ответила за " + timeoutMs + " мс");
+        } catch (InterruptedException e) {
+            cancel(task);
+            throw e;
+        } catch (CancellationException e) {
+            throw new TimeoutException("Запрос к Ollama отменён");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    public Snapshot snapshot() {
+        long done = started.get();
+        long waits = done + expired.get();
+        return new Snapshot(maxInFlight, inFlight.get(), queued.get(), queueCapacity, submitted.get(),
+                completed.get(), failed.get(), rejected.get(), expired.get(), cancelled.get(),
+                waits == 0 ? 0.0 : totalQueueWaitNanos.get() / 1_000_000.0 / waits,
+                TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()),
+                done == 0 ? 0.0 : totalInferenceNanos.get() / 1_000_000.0 / done,
+                TimeUnit.NANOSECONDS.toMillis(maxInferenceNanos.get()));
+    }
+    
+    private <T> Task<T> submit(long deadlineNanos, Callable<T> callable) {
+        if (closed) {
+            throw new RejectedExecutionException("Очередь Ollama остановлена");
+        }
+        // Резервируем место до вставки, чтобы параллельные вызовы не переполнили очередь
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Очередь Ollama заполнена: " + queueCapacity + " запросов");
+        }
+        Task<T> task = new Task<>(callable, deadlineNanos);
+        submitted.incrementAndGet();
+        queue.add(task);
+        return task;
+    }
+    
+    private void cancel(Task<?> task) {
+        // Задача в очереди будет пропущена воркером, выполняющаяся - прервана
+        if (task.cancel(true)) {
+            cancelled.incrementAndGet();
+        }
+    }
+    
+    private void work() {
+        while (!closed) {
+            Task<?> task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (task.isDone()) {
+                continue;
+            }
+            
+            long now = System.nanoTime();
+            long waitNanos = now - task.enqueuedNanos;
+            totalQueueWaitNanos.addAndGet(waitNanos);
+            maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            if (now - task.deadlineNanos >= 0) {
+                expired.incrementAndGet();
+                task.expire();
+                continue;
+            }
+            
+            started.incrementAndGet();
+            inFlight.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.decrementAndGet();
+                long inferenceNanos = System.nanoTime() - now;
+                totalInferenceNanos.addAndGet(inferenceNanos);
+                maxInferenceNanos.accumulateAndGet(inferenceNanos, Math::max);
+                // FutureTask.cancel(true) мог оставить флаг прерывания воркеру
+                Thread.interrupted();
+            }
+            if (task.isCancelled()) {
+                continue;
+            }
+            try {
+                task.get();
+                completed.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Отменяет ожидающие запросы и останавливает воркеры
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Task<?>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (Task<?> task : pending) {
+            task.cancel(false);
+        }
+        workers.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,232 @@
+package app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потоковый вызов /api/chat Ollama. Токены читаются по мере генерации. Без схемы ответа,
+ * как только закрылся верхнеуровневый JSON-объект, соединение закрывается - сервер прекращает
+ * генерацию, и хвостовой текст модели не оплачивается временем. Со схемой модель сама
+ * заканчивает на закрывающей скобке, поэтому поток дочитывается до итогового фрагмента done
+ * со статистикой токенов, но не дольше DRAIN_TIMEOUT_MS. Без потока ответ приходит одним
+ * объектом и разбирается тем же циклом.
+ * <p>
+ * Сервер держит модель загруженной keepAlive после запроса и вместе с ней кэш обработанного
+ * промпта: общий с прошлым запросом префикс сообщений заново не вычисляется.
+ */
+public class OllamaStreamingChat {
+    private static final Logger log = LoggerFactory.getLogger(OllamaStreamingChat.class);
+    // Сколько ждать итогового фрагмента после закрытия объекта в ответе со схемой
+    private static final long DRAIN_TIMEOUT_MS = 2_000;
+    
+    /**
+     * @param content JSON-объект, если он закрылся, иначе весь полученный текст
+     * @param complete объект закрылся
+     * @param stoppedEarly генерация остановлена после объекта, до конца ответа модели
+     * @param tokens число сгенерированных токенов: eval_count сервера или число фрагментов потока
+     * @param promptTokens сколько токенов промпта сервер вычислил заново, без взятых из кэша;
+     *                     -1, если ответ остановлен до итоговой статистики
+     * @param promptEvalMs время обработки промпта сервером; -1, если неизвестно
+     */
+    public record Result(String content, boolean complete, boolean stoppedEarly, long ttftMs, long totalMs,
+                         long tokens, long promptTokens, long promptEvalMs) {}
+    
+    /**
+     * Средние по промпту считаются по ответам, дочитанным до итоговой статистики (promptSamples):
+     * это каждый ответ со схемой, поэтому экономия на кэше промпта видна по запросам оценки
+     */
+    public record Snapshot(long requests, long earlyStops, long incomplete, double avgTtftMs, long lastTtftMs,
+                           double avgTotalMs, double avgTokens, long totalTokens, long promptSamples,
+                           double avgPromptTokens, double avgPromptEvalMs) {}
+    
+    private final String baseUrl;
+    private final String keepAlive;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong earlyStops = new AtomicLong();
+    private final AtomicLong incomplete = new AtomicLong();
+    private final AtomicLong totalTtftMs = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong totalTokens = new AtomicLong();
+    private final AtomicLong promptSamples = new AtomicLong();
+    private final AtomicLong totalPromptTokens = new AtomicLong();
+    private final AtomicLong totalPromptEvalMs = new AtomicLong();
+    private volatile long lastTtftMs;
+    
+    /**
+     * @param keepAlive сколько сервер держит модель после запроса ("30m"); null - по умолчанию сервера
+     */
+    public OllamaStreamingChat(String baseUrl, Duration connectTimeout, String keepAlive) {
+        this.baseUrl = baseUrl;
+        this.keepAlive = keepAlive != null && !keepAlive.isBlank() ? keepAlive : null;
+        // Локальный сервер по http: без попытки перейти на HTTP/2
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+    
+    /**
+     * Ошибки соединения - IOException, ошибки самого сервера (неизвестная модель и т.п.) - IllegalStateException
+     * @param options параметры генерации Ollama (temperature, top_p, ...)
+     * @param format JSON Schema ответа или null для свободного текста
+     * @param stream читать ответ потоком
+     * @param timeout сколько ждать заголовков ответа; дальше срок контролирует очередь запросов
+     */
+    public Result chat(String model, String system, String user, Map<String, Object> options, JsonNode format,
+                       boolean stream, Duration timeout) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        body.put("stream", stream);
+        if (keepAlive != null) {
+            body.put("keep_alive", keepAlive);
+        }
+        if (format != null) {
+            body.set("format", format);
+        }
+        ArrayNode messages = body.putArray("messages");
+        messages.addObject().put("role", "system").put("content", system);
+        messages.addObject().put("role", "user").put("content", user);
+        body.set("options", objectMapper.valueToTree(options));
+        
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/chat"))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        JsonObjectTracker tracker = new JsonObjectTracker();
+        StringBuilder text = new StringBuilder();
+        long ttftNanos = -1;
+        long tokens = 0;
+        long promptTokens = -1;
+        long promptEvalMs = -1;
+        boolean done = false;
+        long drainDeadlineNanos = 0;
+        boolean draining = false;
+        
+        // Закрытие потока до конца ответа обрывает соединение, и Ollama перестаёт генерировать
+        try (InputStream in = response.body();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Ollama вернула " + response.statusCode() + ": " + readAll(reader));
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Запрос к Ollama отменён");
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(line);
+                if (chunk.hasNonNull("error")) {
+                    throw new IllegalStateException("Ollama: " + chunk.get("error").asText());
+                }
+                String content = chunk.path("message").path("content").asText("");
+                boolean closed = false;
+                if (!content.isEmpty()) {
+                    if (ttftNanos < 0) {
+                        ttftNanos = System.nanoTime() - start;
+                    }
+                    tokens++;
+                    text.append(content);
+                    closed = tracker.append(content);
+                }
+                if (chunk.path("done").asBoolean(false)) {
+                    done = true;
+                    tokens = chunk.path("eval_count").asLong(tokens);
+                    // Если весь промпт взят из кэша, сервер может не прислать prompt_eval_count
+                    promptTokens = chunk.path("prompt_eval_count").asLong(0);
+                    promptEvalMs = chunk.path("prompt_eval_duration").asLong(0) / 1_000_000;
+                    break;
+                }
+                if (closed && !draining) {
+                    if (format == null) {
+                        break;
+                    }
+                    draining = true;
+                    drainDeadlineNanos = System.nanoTime() + DRAIN_TIMEOUT_MS * 1_000_000;
+                }
+                if (draining && System.nanoTime() - drainDeadlineNanos >= 0) {
+                    break;
+                }
+            }
+        }
+        
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long ttftMs = ttftNanos < 0 ? elapsedMs : ttftNanos / 1_000_000;
+        boolean complete = tracker.isComplete();
+        Result result = new Result(complete ? tracker.json() : text.toString(), complete, complete && !done,
+                ttftMs, elapsedMs, tokens, promptTokens, promptEvalMs);
+        record(result);
+        log.info("Ответ Ollama: первый токен через {} мс, {} токенов за {} мс{}{}", ttftMs, tokens, elapsedMs,
+                promptTokens >= 0 ? ", промпт без кэша " + promptTokens + " токенов за " + promptEvalMs + " мс" : "",
+                result.stoppedEarly() ? ", остановлен после JSON" : "");
+        return result;
+    }
+    
+    public Snapshot snapshot() {
+        long count = requests.get();
+        return new Snapshot(count, earlyStops.get(), incomplete.get(),
+                count == 0 ? 0.0 : (double) totalTtftMs.get() / count, lastTtftMs,
+                count == 0 ? 0.0 : (double) totalMs.get() / count,
+                count == 0 ? 0.0 : (double) totalTokens.get() / count, totalTokens.get(),
+                promptSamples.get(), average(totalPromptTokens.get(), promptSamples.get()),
+                average(totalPromptEvalMs.get(), promptSamples.get()));
+    }
+    
+    private void record(Result result) {
+        requests.incrementAndGet();
+        if (result.stoppedEarly()) {
+            earlyStops.incrementAndGet();
+        }
+        if (!result.complete()) {
+            incomplete.incrementAndGet();
+        }
+        totalTtftMs.addAndGet(result.ttftMs());
+        totalMs.addAndGet(result.totalMs());
+        totalTokens.addAndGet(result.tokens());
+        lastTtftMs = result.ttftMs();
+        if (result.promptTokens() >= 0) {
+            promptSamples.incrementAndGet();
+            totalPromptTokens.addAndGet(result.promptTokens());
+            totalPromptEvalMs.addAndGet(result.promptEvalMs());
+        }
+    }
+    
+    private static double average(long total, long count) {
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+    
+    private static String readAll(BufferedReader reader) throws IOException {
+        StringBuilder out = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null && out.length() < 1000) {
+            out.append(line);
+        }
+        return out.toString();
+    }
+}
@@ -2,8 +2,7 @@ package app.service;
 
 import app.model.UserProfile;
 import app.service.OllamaClient;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
@@ -16,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,12 +26,13 @@ import java.util.regex.Pattern;
 public class ResumeParserService {
     private static final Logger log = LoggerFactory.getLogger(ResumeParserService.class);
     
+    // extras модель не заполняет: это данные пользователя, а не резюме
+    private static final ObjectNode PROFILE_SCHEMA = JsonSchemas.forType(UserProfile.class, Set.of("extras"));
+    
     private final OllamaClient ollamaClient;
-    private final ObjectMapper objectMapper;
     
     public ResumeParserService(OllamaClient ollamaClient) {
         this.ollamaClient = ollamaClient;
-        this.objectMapper = new ObjectMapper();
     }
     
     /**
@@ -276,94 +277,11 @@ public class ResumeParserService {
             - Если информация не найдена, используй разумные значения по умолчанию
             """, truncatedText);
         
-        String response = ollamaClient.generate(prompt);
-        log.info("Получен ответ от Ollama для парсинга резюме");
-        
-        return parseUserProfileFromJson(response);
-    }
-    
-    /**
-     * Парсит UserProfile из JSON ответа Ollama
-     */
-    private UserProfile parseUserProfileFromJson(String jsonResponse) throws Exception {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(jsonResponse);
-            
-            UserProfile profile = new UserProfile();
-            
-            // Парсим основные поля
-            if (jsonNode.has("fullName")) {
-                profile.setFullName(jsonNode.get("fullName").asText());
-            }
-            
-            if (jsonNode.has("experienceYears")) {
-                profile.setExperienceYears(jsonNode.get("experienceYears").asInt());
-            }
-            
-            if (jsonNode.has("summary")) {
-                profile.setSummary(jsonNode.get("summary").asText());
-            }
-            
-            // Парсим навыки
-            if (jsonNode.has("skills") && jsonNode.get("skills").isArray()) {
-                List<String> skills = new ArrayList<>();
-                for (JsonNode skillNode : jsonNode.get("skills")) {
-                    skills.add(skillNode.asText());
-                }
-                profile.setSkills(skills);
-            }
-            
-            // Парсим стек
-            if (jsonNode.has("stack") && jsonNode.get("stack").isArray()) {
-                List<String> stack = new ArrayList<>();
-                for (JsonNode techNode : jsonNode.get("stack")) {
-                    stack.add(techNode.asText());
-                }
-                profile.setStack(stack);
-            }
-            
-            // Парсим локации
-            if (jsonNode.has("preferredLocations") && jsonNode.get("preferredLocations").isArray()) {
-                List<String> locations = new ArrayList<>();
-                for (JsonNode locationNode : jsonNode.get("preferredLocations")) {
-                    locations.add(locationNode.asText());
-                }
-                profile.setPreferredLocations(locations);
-            }
-            
-            // Парсим формат работы
-            if (jsonNode.has("preferredWorkFormat")) {
-                profile.setPreferredWorkFormat(jsonNode.get("preferredWorkFormat").asText());
-            }
-            
-            // Парсим зарплатные ожидания
-            if (jsonNode.has("salaryExpectations")) {
-                JsonNode salaryNode = jsonNode.get("salaryExpectations");
-                int min = salaryNode.has("min") ? salaryNode.get("min").asInt() : 80000;
-                int max = salaryNode.has("max") ? salaryNode.get("max").asInt() : 200000;
-                int current = salaryNode.has("current") ? salaryNode.get("current").asInt() : 120000;
-                profile.setSalaryExpectations(new UserProfile.SalaryExpectations(min, max, current));
-            }
-            
-            // Парсим языки
-            if (jsonNode.has("languages")) {
-                JsonNode languagesNode = jsonNode.get("languages");
-                Map<String, String> languages = new java.util.HashMap<>();
-                languagesNode.fieldNames().forEachRemaining(lang -> {
-                    languages.put(lang, languagesNode.get(lang).asText());
-                });
-                profile.setLanguages(languages);
-            }
-            
-            log.info("Успешно создан профиль с помощью Ollama: {} (опыт: {} лет)", 
-                    profile.getFullName(), profile.getExperienceYears());
-            
-            return profile;
-            
-        } catch (Exception e) {
-            log.error("Ошибка парсинга JSON от Ollama: {}", e.getMessage());
-            throw new RuntimeException("Ошибка парсинга резюме с помощью Ollama", e);
-        }
+        // Ответ ограничен схемой UserProfile и привязывается к нему напрямую
+        UserProfile profile = ollamaClient.generateStructured(prompt, UserProfile.class, PROFILE_SCHEMA).value();
+        log.info("Успешно создан профиль с помощью Ollama: {} (опыт: {} лет)",
+                profile.getFullName(), profile.getExperienceYears());
+        return profile;
     }
     
     /**
@@ -0,0 +1,230 @@
+package app.service;
+
+import app.config.Env;
+import app.hh.parser.VacancyPageParser;
+import app.model.Vacancy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Загружает вакансию через headless Chrome. Используется только если включён
+ * VACANCY_SELENIUM_MODE: основной путь - HttpVacancyFetcher
+ */
+public class SeleniumVacancyFetcher implements VacancyFetcher, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SeleniumVacancyFetcher.class);
+    
+    private static final Duration TITLE_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DESCRIPTION_TIMEOUT = Duration.ofSeconds(2);
+    
+    /**
+     * Картинки, шрифты, медиа и сторонние счётчики/реклама: для разбора вакансии не нужны
+     */
+    private static final List<String> BLOCKED_URLS = List.of(
+        "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.avif", "*.svg", "*.ico",
+        "*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot",
+        "*.mp4", "*.webm", "*.mp3", "*.m3u8",
+        "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*",
+        "*mc.yandex.ru*", "*an.yandex.ru*", "*yastatic.net/pcode*", "*adfox*",
+        "*top-fwz1.mail.ru*", "*vk.com/rtrg*", "*facebook.net*", "*tiktok*"
+    );
+    
+    // Сумма transferSize документа и всех ресурсов страницы по Resource Timing API
+    private static final String BYTES_SCRIPT = "return performance.getEntriesByType('navigation')"
+            + ".concat(performance.getEntriesByType('resource'))"
+            + ".reduce(function (sum, e) { return sum + (e.transferSize || 0); }, 0);";
+    
+    /**
+     * Настройки браузеров
+     * @param leanProfile eager-загрузка, блокировка лишних ресурсов, без расширений
+     * @param diskCacheDir общий дисковый кэш всех браузеров пула; пусто - кэш по умолчанию
+     * @param extraBlockedUrls дополнительные шаблоны URL для блокировки
+     */
+    public record Settings(int poolSize, int maxPagesPerDriver, int idleTimeoutSec, int acquireTimeoutMs,
+                           boolean leanProfile, int pageLoadTimeoutSec, String diskCacheDir,
+                           List<String> extraBlockedUrls) {
+        
+        /**
+         * Значения по умолчанию из Env (для CLI без Spring)
+         */
+        public static Settings defaults() {
+            return new Settings(Env.DEFAULT_SELENIUM_POOL_SIZE, Env.DEFAULT_SELENIUM_MAX_PAGES_PER_DRIVER,
+                    Env.DEFAULT_SELENIUM_IDLE_TIMEOUT_SEC, Env.DEFAULT_SELENIUM_ACQUIRE_TIMEOUT_MS,
+                    Env.DEFAULT_SELENIUM_LEAN_PROFILE, Env.DEFAULT_SELENIUM_PAGE_LOAD_TIMEOUT_SEC,
+                    Env.DEFAULT_SELENIUM_DISK_CACHE_DIR, List.of());
+        }
+    }
+    
+    public record PageStats(long pages, double avgLoadMs, double avgBytes, long lastLoadMs, long lastBytes) {}
+    
+    private final VacancyPageParser parser;
+    private final Settings settings;
+    private final WebDriverPool pool;
+    
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong totalLoadMs = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private volatile long lastLoadMs;
+    private volatile long lastBytes;
+    
+    public SeleniumVacancyFetcher(VacancyPageParser parser) {
+        this(parser, Settings.defaults());
+    }
+    
+    public SeleniumVacancyFetcher(VacancyPageParser parser, Settings settings) {
+        this.parser = parser;
+        this.settings = settings;
+        int size = settings.poolSize() > 0 ? settings.poolSize() : WebDriverPool.defaultSize();
+        // Браузеры запускаются только при первой оценке и закрываются все после простоя
+        this.pool = new WebDriverPool(this::createDriver, size, 0, settings.maxPagesPerDriver(),
+                settings.idleTimeoutSec(), settings.acquireTimeoutMs());
+    }
+    
+    /**
+     * Создаёт Chrome драйвер
+     */
+    private WebDriver createDriver() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless"); // Запуск в фоновом режиме
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-gpu");
+        options.addArguments("--window-size=1920,1080");
+        options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
+        
+        if (settings.leanProfile()) {
+            // Не ждём картинок и подресурсов: DOM готов - страницу можно разбирать
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+            options.addArguments("--disable-extensions");
+            options.addArguments("--disable-component-extensions-with-background-pages");
+            options.addArguments("--disable-background-networking");
+            options.addArguments("--mute-audio");
+            options.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+        }
+        if (settings.diskCacheDir() != null && !settings.diskCacheDir().isBlank()) {
+            File cacheDir = new File(settings.diskCacheDir()).getAbsoluteFile();
+            cacheDir.mkdirs();
+            options.addArguments("--disk-cache-dir=" + cacheDir.getPath());
+        }
+        
+        ChromeDriver driver = new ChromeDriver(options);
+        if (settings.leanProfile()) {
+            List<String> blocked = new ArrayList<>(BLOCKED_URLS);
+            blocked.addAll(settings.extraBlockedUrls());
+            try {
+                driver.executeCdpCommand("Network.enable", Map.of());
+                driver.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blocked));
+            } catch (Exception e) {
+                log.warn("Не удалось включить блокировку ресурсов через CDP: {}", e.getMessage());
+            }
+        }
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(settings.pageLoadTimeoutSec()));
+        // Без неявного ожидания: каждое ожидание ниже явное и ограничено по времени
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        return driver;
+    }
+    
+    /**
+     * Получает данные вакансии по ID
+     */
+    @Override
+    public Optional<Vacancy> fetch(String vacancyId) {
+        String url = "https://hh.ru/vacancy/" + vacancyId;
+        log.info("Загружаем вакансию: {}", url);
+        
+        WebDriverPool.Lease lease;
+        try {
+            lease = pool.borrow();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Не удалось получить браузер для вакансии {}: {}", vacancyId, e.getMessage());
+            return Optional.empty();
+        }
+        
+        boolean failed = false;
+        WebDriver driver = lease.driver();
+        try {
+            long loadStart = System.nanoTime();
+            driver.get(url);
+            new WebDriverWait(driver, TITLE_TIMEOUT)
+                    .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("h1")));
+            try {
+                // Описание обычно приходит вместе с заголовком; если его нет, ждём недолго и разбираем что есть
+                new WebDriverWait(driver, DESCRIPTION_TIMEOUT)
+                        .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("[data-qa='vacancy-description']")));
+            } catch (TimeoutException e) {
+                log.debug("Описание вакансии {} не появилось за {} с", vacancyId, DESCRIPTION_TIMEOUT.toSeconds());
+            }
+            
+            recordPage((System.nanoTime() - loadStart) / 1_000_000, transferredBytes(driver));
+            
+            // Один снимок DOM и разбор за один проход тем же парсером, что и у HTTP-загрузки
+            long start = System.nanoTime();
+            Vacancy vacancy = parser.parse(driver.getPageSource(), vacancyId, url);
+            log.debug("Вакансия {} разобрана за {} мс", vacancyId, (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(vacancy);
+        } catch (Exception e) {
+            failed = true;
+            log.error("Ошибка при загрузке вакансии {}: {}", vacancyId, e.getMessage());
+            return Optional.empty();
+        } finally {
+            pool.release(lease, failed);
+        }
+    }
+    
+    public WebDriverPool.Snapshot getPoolMetrics() {
+        return pool.snapshot();
+    }
+    
+    public PageStats getPageStats() {
+        long count = pages.get();
+        return new PageStats(count,
+                count == 0 ? 0.0 : (double) totalLoadMs.get() / count,
+                count == 0 ? 0.0 : (double) totalBytes.get() / count,
+                lastLoadMs, lastBytes);
+    }
+    
+    private void recordPage(long loadMs, long bytes) {
+        pages.incrementAndGet();
+        totalLoadMs.addAndGet(loadMs);
+        totalBytes.addAndGet(bytes);
+        lastLoadMs = loadMs;
+        lastBytes = bytes;
+        log.debug("Страница загружена за {} мс, передано {} КБ", loadMs, bytes / 1024);
+    }
+    
+    private static long transferredBytes(WebDriver driver) {
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(BYTES_SCRIPT);
+            return result instanceof Number number ? number.longValue() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Закрывает все браузеры пула
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
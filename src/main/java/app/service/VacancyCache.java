@@ -0,0 +1,191 @@
+package app.service;
+
+import app.model.Vacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш разобранных вакансий перед загрузчиком: LRU в памяти с ограничением размера и TTL,
+ * за ним - необязательный постоянный уровень (SQLite). Параллельные запросы одной вакансии
+ * ждут одну загрузку. Пустой результат не кэшируется, чтобы следующая оценка попробовала снова.
+ * Вакансии из кэша общие для всех вызывающих - их нельзя менять.
+ */
+public class VacancyCache implements VacancyFetcher {
+    private static final Logger log = LoggerFactory.getLogger(VacancyCache.class);
+    
+    /**
+     * Постоянный уровень кэша
+     */
+    public interface Store {
+        /**
+         * @param notBeforeMillis записи, сохранённые раньше этого момента, считаются устаревшими
+         */
+        Optional<Vacancy> load(String vacancyId, long notBeforeMillis) throws Exception;
+        
+        void save(Vacancy vacancy) throws Exception;
+        
+        /**
+         * Удаляет записи, сохранённые раньше notBeforeMillis
+         */
+        int prune(long notBeforeMillis) throws Exception;
+    }
+    
+    public record Snapshot(int size, int maxSize, long hits, long misses, long storeHits, long loads,
+                           long loadFailures, long coalesced, long evictions, long expirations,
+                           double hitRate) {}
+    
+    private record Entry(Vacancy vacancy, long expiresAtNanos) {}
+    
+    private final VacancyFetcher loader;
+    private final Store store;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long storeTtlMillis;
+    private final Map<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Vacancy>>> inFlight = new ConcurrentHashMap<>();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    
+    /**
+     * @param loader откуда грузить вакансию при промахе
+     * @param store постоянный уровень или null
+     * @param maxSize сколько вакансий держать в памяти
+     * @param ttlMin сколько минут вакансия живёт в памяти
+     * @param storeTtlHours сколько часов вакансия живёт в постоянном уровне
+     */
+    public VacancyCache(VacancyFetcher loader, Store store, int maxSize, int ttlMin, int storeTtlHours) {
+        this.loader = loader;
+        this.store = store;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(Math.max(1, ttlMin));
+        this.storeTtlMillis = TimeUnit.HOURS.toMillis(Math.max(1, storeTtlHours));
+        // accessOrder = true: порядок обхода от давно не использованных к недавним
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > VacancyCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        
+        if (store != null) {
+            try {
+                int pruned = store.prune(System.currentTimeMillis() - storeTtlMillis);
+                if (pruned > 0) {
+                    log.info("Удалено {} устаревших вакансий из кэша в БД", pruned);
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось очистить кэш вакансий в БД: {}", e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public Optional<Vacancy> fetch(String vacancyId) {
+        Vacancy cached = getFresh(vacancyId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        
+        CompletableFuture<Optional<Vacancy>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Vacancy>> existing = inFlight.putIfAbsent(vacancyId, mine);
+        if (existing != null) {
+            // Вакансию уже грузит другой поток - ждём его результат
+            coalesced.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                return Optional.empty();
+            }
+        }
+        
+        try {
+            Optional<Vacancy> vacancy = load(vacancyId);
+            vacancy.ifPresent(v -> put(vacancyId, v));
+            mine.complete(vacancy);
+            return vacancy;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(vacancyId, mine);
+        }
+    }
+    
+    public Snapshot snapshot() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return new Snapshot(size, maxSize, hitCount, misses.get(), storeHits.get(), loads.get(),
+                loadFailures.get(), coalesced.get(), evictions.get(), expirations.get(),
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+    
+    private Optional<Vacancy> load(String vacancyId) {
+        if (store != null) {
+            try {
+                Optional<Vacancy> stored = store.load(vacancyId, System.currentTimeMillis() - storeTtlMillis);
+                if (stored.isPresent()) {
+                    storeHits.incrementAndGet();
+                    return stored;
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось прочитать вакансию {} из кэша в БД: {}", vacancyId, e.getMessage());
+            }
+        }
+        
+        loads.incrementAndGet();
+        Optional<Vacancy> vacancy = loader.fetch(vacancyId);
+        if (vacancy.isEmpty()) {
+            loadFailures.incrementAndGet();
+        } else if (store != null) {
+            try {
+                store.save(vacancy.get());
+            } catch (Exception e) {
+                log.warn("Не удалось сохранить вакансию {} в кэш в БД: {}", vacancyId, e.getMessage());
+            }
+        }
+        return vacancy;
+    }
+    
+    private synchronized Vacancy getFresh(String vacancyId) {
+        Entry entry = entries.get(vacancyId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            entries.remove(vacancyId);
+            expirations.incrementAndGet();
+            return null;
+        }
+        return entry.vacancy();
+    }
+    
+    private synchronized void put(String vacancyId, Vacancy vacancy) {
+        entries.put(vacancyId, new Entry(vacancy, System.nanoTime() + ttlNanos));
+    }
+}
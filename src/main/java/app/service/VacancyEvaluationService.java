@@ -2,27 +2,25 @@ package app.service;
 
 import app.config.Env;
 import app.hh.HhClient;
+import app.hh.parser.VacancyPageParser;
 import app.model.EvaluationResult;
 import app.model.UserProfile;
 import app.model.Vacancy;
+import app.store.SqliteStore;
 import app.util.SkillMatcher;
 import app.util.TextUtils;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.openqa.selenium.By;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import jakarta.annotation.PreDestroy;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Сервис для оценки соответствия вакансий и пользователей
@@ -30,19 +28,111 @@ import java.util.List;
 @Service
 public class VacancyEvaluationService {
     private static final Logger log = LoggerFactory.getLogger(VacancyEvaluationService.class);
+    private static final String SELENIUM_OFF = "off";
+    private static final String SELENIUM_ALWAYS = "always";
+    // Поднимать при любом изменении buildProfilePrefix, buildVacancyPrompt или EVALUATION_SCHEMA:
+    // старые оценки из кэша перестанут совпадать
+    private static final String PROMPT_VERSION = "3";
+    
+    /**
+     * Схема ответа модели: поля EvaluationResult, suggestion - только Apply или Skip
+     */
+    private static final ObjectNode EVALUATION_SCHEMA = evaluationSchema();
     
     private final Env env;
     private final HhClient hhClient;
     private final OllamaClient ollamaClient;
-    private final ObjectMapper objectMapper;
-    private WebDriver driver;
+    private final String seleniumMode;
+    private final VacancyFetcher httpFetcher;
+    private final SeleniumVacancyFetcher seleniumFetcher;
+    private final VacancyCache vacancyCache;
+    private final EvaluationCache evaluationCache;
+    private final EvaluationRouter router;
+    
+    private static ObjectNode evaluationSchema() {
+        ObjectNode schema = JsonSchemas.forType(EvaluationResult.class, Set.of());
+        ObjectNode suggestion = (ObjectNode) schema.get("properties").get("suggestion");
+        suggestion.putArray("enum").add("Apply").add("Skip");
+        return schema;
+    }
     
-    public VacancyEvaluationService(Env env, HhClient hhClient, OllamaClient ollamaClient) {
+    public VacancyEvaluationService(Env env, HhClient hhClient, OllamaClient ollamaClient, SqliteStore store) {
         this.env = env;
         this.hhClient = hhClient;
         this.ollamaClient = ollamaClient;
-        this.objectMapper = new ObjectMapper();
-        initializeDriver();
+        this.router = new EvaluationRouter(ollamaClient.getProperties());
+        
+        // Без HhClient (CLI без Spring) остаётся только браузер
+        boolean httpAvailable = env != null && hhClient != null;
+        this.seleniumMode = httpAvailable ? env.getVacancySeleniumMode() : SELENIUM_ALWAYS;
+        VacancyPageParser pageParser = new VacancyPageParser();
+        this.httpFetcher = httpAvailable ? new HttpVacancyFetcher(hhClient, pageParser) : null;
+        if (SELENIUM_OFF.equals(seleniumMode)) {
+            this.seleniumFetcher = null;
+        } else if (env == null) {
+            this.seleniumFetcher = new SeleniumVacancyFetcher(pageParser);
+        } else {
+            this.seleniumFetcher = new SeleniumVacancyFetcher(pageParser, new SeleniumVacancyFetcher.Settings(
+                    env.getSeleniumPoolSize(), env.getSeleniumMaxPagesPerDriver(), env.getSeleniumIdleTimeoutSec(),
+                    env.getSeleniumAcquireTimeoutMs(), env.isSeleniumLeanProfile(), env.getSeleniumPageLoadTimeoutSec(),
+                    env.getSeleniumDiskCacheDir(), env.getSeleniumBlockedUrls()));
+        }
+        log.info("Загрузка вакансий: HTTP {}, Selenium: {}", httpFetcher != null ? "включён" : "выключен", seleniumMode);
+        
+        // Без Env (CLI) вакансия грузится один раз за запуск - кэш не нужен
+        if (env != null && env.getVacancyCacheSize() > 0) {
+            VacancyCache.Store cacheStore = store != null && env.isVacancyCachePersistent() ? sqliteCacheStore(store) : null;
+            this.vacancyCache = new VacancyCache(this::loadVacancy, cacheStore, env.getVacancyCacheSize(),
+                    env.getVacancyCacheTtlMin(), env.getVacancyCacheDbTtlHours());
+        } else {
+            this.vacancyCache = null;
+        }
+        if (env != null && env.getEvalCacheSize() > 0) {
+            this.evaluationCache = new EvaluationCache(store != null && env.isEvalCachePersistent()
+                    ? sqliteEvaluationStore(store) : null, env.getEvalCacheSize(), PROMPT_VERSION);
+        } else {
+            this.evaluationCache = null;
+        }
+    }
+    
+    /**
+     * Постоянный уровень кэша вакансий в таблице vacancy_cache
+     */
+    private static VacancyCache.Store sqliteCacheStore(SqliteStore store) {
+        return new VacancyCache.Store() {
+            @Override
+            public Optional<Vacancy> load(String vacancyId, long notBeforeMillis) throws Exception {
+                return store.findCachedVacancy(vacancyId, notBeforeMillis);
+            }
+            
+            @Override
+            public void save(Vacancy vacancy) throws Exception {
+                store.cacheVacancy(vacancy);
+            }
+            
+            @Override
+            public int prune(long notBeforeMillis) throws Exception {
+                return store.pruneCachedVacancies(notBeforeMillis);
+            }
+        };
+    }
+    
+    /**
+     * Постоянный уровень кэша оценок в таблице evaluations
+     */
+    private static EvaluationCache.Store sqliteEvaluationStore(SqliteStore store) {
+        return new EvaluationCache.Store() {
+            @Override
+            public Optional<String> load(String key) throws Exception {
+                return store.findEvaluation(key);
+            }
+            
+            @Override
+            public int save(String key, String vacancyId, String contentHash, String model, String resultJson)
+                    throws Exception {
+                return store.saveEvaluation(key, vacancyId, contentHash, model, resultJson);
+            }
+        };
     }
     
     /**
@@ -57,178 +147,78 @@ public class VacancyEvaluationService {
             throw new RuntimeException("Не удалось получить данные вакансии: " + vacancyId);
         }
         
+        // Та же вакансия, профиль и модель уже оценивались - повторный вызов LLM не нужен
+        EvaluationCache.Key cacheKey = null;
+        if (evaluationCache != null) {
+            cacheKey = evaluationCache.key(vacancy, userProfile, router.describe());
+            Optional<EvaluationResult> cached = evaluationCache.get(cacheKey);
+            if (cached.isPresent()) {
+                log.info("Оценка вакансии {} взята из кэша", vacancyId);
+                return cached.get();
+            }
+        }
+        
         // Проверяем доступность Ollama
         if (!ollamaClient.isAvailable()) {
             log.warn("Ollama недоступна, используем эвристическую оценку");
             return evaluateWithHeuristics(vacancy, userProfile);
         }
         
-        // Строим промпт для LLM
-        String prompt = buildPrompt(vacancy, userProfile);
+        // Строим промпт для LLM: профиль - в неизменном системном сообщении, вакансия - в пользовательском
+        String profilePrefix = buildProfilePrefix(userProfile);
+        String prompt = buildVacancyPrompt(vacancy);
         
-        // Вызываем Ollama
-        String response = ollamaClient.generate(prompt);
-        
-        // Парсим и валидируем результат
-        return parseAndValidateResult(response, vacancy, userProfile);
-    }
-    
-    /**
-     * Инициализирует Chrome драйвер
-     */
-    private void initializeDriver() {
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless"); // Запуск в фоновом режиме
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
+        // Вызываем Ollama: ответ ограничен схемой EvaluationResult и сразу привязан к нему;
+        // пограничные оценки быстрой модели переоцениваются основной
+        EvaluationResult result;
+        try {
+            result = router.evaluate(model -> {
+                OllamaClient.Structured<EvaluationResult> response = ollamaClient.generateStructured(
+                        profilePrefix, prompt, EvaluationResult.class, EVALUATION_SCHEMA, model);
+                return validateResult(response.value(), response.json());
+            });
+        } catch (InvalidModelOutputException e) {
+            log.error("Ошибка разбора результата LLM: {}", e.getMessage());
+            // Эвристика после ошибки разбора не кэшируется: следующая оценка снова спросит модель
+            return evaluateWithHeuristics(vacancy, userProfile);
+        }
         
-        this.driver = new ChromeDriver(options);
-        this.driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
-        this.driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        if (cacheKey != null) {
+            evaluationCache.put(cacheKey, result);
+        }
+        return result;
     }
     
     /**
-     * Получает данные вакансии по ID
+     * Получает данные вакансии по ID: из кэша, если он включён, иначе загружает
      */
-    private Vacancy fetchVacancyById(String vacancyId) throws Exception {
-        String url = "https://hh.ru/vacancy/" + vacancyId;
-        log.info("Загружаем вакансию: {}", url);
-        
-        try {
-            driver.get(url);
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("h1")));
-            Thread.sleep(2000); // Даем время для загрузки динамического контента
-            
-            return parseVacancy(vacancyId, url);
-        } catch (Exception e) {
-            log.error("Ошибка при загрузке вакансии {}: {}", vacancyId, e.getMessage());
-            return null;
-        }
+    private Vacancy fetchVacancyById(String vacancyId) {
+        Optional<Vacancy> vacancy = vacancyCache != null ? vacancyCache.fetch(vacancyId) : loadVacancy(vacancyId);
+        return vacancy.orElse(null);
     }
     
     /**
-     * Парсит страницу вакансии с помощью Selenium
+     * Загружает вакансию: сначала по HTTP, браузер - только если он включён
      */
-    private Vacancy parseVacancy(String vacancyId, String sourceUrl) {
-        Vacancy vacancy = new Vacancy();
-        vacancy.setId(vacancyId);
-        vacancy.setSourceUrl(sourceUrl);
-        
-        try {
-            // Заголовок вакансии
-            WebElement titleElement = driver.findElement(By.cssSelector("h1"));
-            if (titleElement != null) {
-                vacancy.setTitle(titleElement.getText().trim());
-            }
-            
-            // Компания
-            try {
-                WebElement companyElement = driver.findElement(By.cssSelector("[data-qa='vacancy-company-name']"));
-                if (companyElement != null) {
-                    vacancy.setCompany(companyElement.getText().trim());
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти название компании: {}", e.getMessage());
-            }
-            
-            // Локация
-            try {
-                WebElement locationElement = driver.findElement(By.cssSelector("[data-qa='vacancy-view-location']"));
-                if (locationElement != null) {
-                    vacancy.setLocation(locationElement.getText().trim());
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти локацию: {}", e.getMessage());
-            }
-            
-            // Зарплата
-            try {
-                WebElement salaryElement = driver.findElement(By.cssSelector("[data-qa='vacancy-salary']"));
-                if (salaryElement != null) {
-                    vacancy.setSalaryRaw(salaryElement.getText().trim());
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти зарплату: {}", e.getMessage());
+    private Optional<Vacancy> loadVacancy(String vacancyId) {
+        if (httpFetcher != null && !SELENIUM_ALWAYS.equals(seleniumMode)) {
+            Optional<Vacancy> vacancy = httpFetcher.fetch(vacancyId);
+            if (vacancy.isPresent() || seleniumFetcher == null) {
+                return vacancy;
             }
-            
-            // Описание
-            try {
-                WebElement descriptionElement = driver.findElement(By.cssSelector("[data-qa='vacancy-description']"));
-                if (descriptionElement != null) {
-                    String description = descriptionElement.getText();
-                    vacancy.setDescription(description);
-                    
-                    // Извлекаем навыки из описания
-                    List<String> skills = TextUtils.extractSkills(description);
-                    vacancy.setSkills(skills);
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти описание: {}", e.getMessage());
-            }
-            
-            // Тип занятости
-            try {
-                WebElement employmentElement = driver.findElement(By.cssSelector("[data-qa='vacancy-view-employment-mode']"));
-                if (employmentElement != null) {
-                    vacancy.setEmploymentType(employmentElement.getText().trim());
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти тип занятости: {}", e.getMessage());
-            }
-            
-            // Формат работы
-            try {
-                WebElement workFormatElement = driver.findElement(By.cssSelector("[data-qa='vacancy-view-work-schedule']"));
-                if (workFormatElement != null) {
-                    vacancy.setWorkFormat(workFormatElement.getText().trim());
-                }
-            } catch (Exception e) {
-                log.debug("Не удалось найти формат работы: {}", e.getMessage());
-            }
-            
-        } catch (Exception e) {
-            log.error("Ошибка при парсинге вакансии: {}", e.getMessage());
+            log.info("Пробуем загрузить вакансию {} через браузер", vacancyId);
         }
-        
-        return vacancy;
+        return seleniumFetcher != null ? seleniumFetcher.fetch(vacancyId) : Optional.empty();
     }
     
-
-    
     /**
-     * Строит промпт для LLM
+     * Системное сообщение оценки: инструкции и кандидат. Оно одинаково для всех вакансий профиля,
+     * поэтому сервер обрабатывает его один раз и дальше берёт из кэша промпта
      */
-    private String buildPrompt(Vacancy vacancy, UserProfile userProfile) {
-        // Ограничиваем длину описания
-        String truncatedDescription = TextUtils.truncate(vacancy.getDescription(), 4000);
-        
+    static String buildProfilePrefix(UserProfile userProfile) {
         return String.format("""
-            Ты - эксперт по оценке соответствия вакансий и кандидатов. Оцени вакансию и кандидата.
-            
-            ВАКАНСИЯ:
-            - Название: %s
-            - Компания: %s
-            - Локация: %s
-            - Зарплата: %s
-            - Навыки: %s
-            - Описание: %s
-            - Тип занятости: %s
-            - Формат работы: %s
-            
-            КАНДИДАТ:
-            - Имя: %s
-            - Опыт: %d лет
-            - Навыки: %s
-            - Стек: %s
-            - Предпочитаемые локации: %s
-            - Предпочитаемый формат: %s
-            - Ожидания по зарплате: %s-%s руб.
-            
-            Оцени по шкале 0-100:
+            Ты - эксперт по оценке соответствия вакансий и кандидатов. Отвечай строго в JSON формате.
+            Тебе пришлют вакансию; оцени её для кандидата ниже по шкале 0-100:
             1. Насколько вакансия подходит кандидату (jobToUserFit)
             2. Насколько кандидат подходит вакансии (userToJobFit)
             
@@ -246,15 +236,16 @@ public class VacancyEvaluationService {
               "suggestion": "Apply",
               "confidence": 0.85
             }
+            
+            КАНДИДАТ:
+            - Имя: %s
+            - Опыт: %d лет
+            - Навыки: %s
+            - Стек: %s
+            - Предпочитаемые локации: %s
+            - Предпочитаемый формат: %s
+            - Ожидания по зарплате: %s-%s руб.
             """,
-            vacancy.getTitle() != null ? vacancy.getTitle() : "",
-            vacancy.getCompany() != null ? vacancy.getCompany() : "",
-            vacancy.getLocation() != null ? vacancy.getLocation() : "",
-            vacancy.getSalaryRaw() != null ? vacancy.getSalaryRaw() : "",
-            vacancy.getSkills() != null ? String.join(", ", vacancy.getSkills()) : "",
-            truncatedDescription,
-            vacancy.getEmploymentType() != null ? vacancy.getEmploymentType() : "",
-            vacancy.getWorkFormat() != null ? vacancy.getWorkFormat() : "",
             userProfile.getFullName() != null ? userProfile.getFullName() : "",
             userProfile.getExperienceYears(),
             userProfile.getSkills() != null ? String.join(", ", userProfile.getSkills()) : "",
@@ -266,73 +257,58 @@ public class VacancyEvaluationService {
         );
     }
     
-
+    /**
+     * Пользовательское сообщение оценки: только вакансия
+     */
+    static String buildVacancyPrompt(Vacancy vacancy) {
+        // Ограничиваем длину описания
+        String truncatedDescription = TextUtils.truncate(vacancy.getDescription(), 4000);
+        
+        return String.format("""
+            ВАКАНСИЯ:
+            - Название: %s
+            - Компания: %s
+            - Локация: %s
+            - Зарплата: %s
+            - Навыки: %s
+            - Описание: %s
+            - Тип занятости: %s
+            - Формат работы: %s
+            """,
+            vacancy.getTitle() != null ? vacancy.getTitle() : "",
+            vacancy.getCompany() != null ? vacancy.getCompany() : "",
+            vacancy.getLocation() != null ? vacancy.getLocation() : "",
+            vacancy.getSalaryRaw() != null ? vacancy.getSalaryRaw() : "",
+            vacancy.getSkills() != null ? String.join(", ", vacancy.getSkills()) : "",
+            truncatedDescription,
+            vacancy.getEmploymentType() != null ? vacancy.getEmploymentType() : "",
+            vacancy.getWorkFormat() != null ? vacancy.getWorkFormat() : ""
+        );
+    }
     
     /**
-     * Парсит и валидирует результат от LLM
+     * Приводит привязанный результат LLM к допустимым значениям
      */
-    private EvaluationResult parseAndValidateResult(String jsonResponse, Vacancy vacancy, UserProfile userProfile) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(jsonResponse);
-            
-            // Создаем результат
-            EvaluationResult result = new EvaluationResult();
-            
-            // Парсим jobToUserFit
-            JsonNode jobToUserFitNode = jsonNode.get("jobToUserFit");
-            if (jobToUserFitNode != null) {
-                EvaluationResult.FitScore jobToUserFit = new EvaluationResult.FitScore();
-                jobToUserFit.setScore(validateScore(jobToUserFitNode.get("score").asInt()));
-                jobToUserFit.setReasons(parseReasons(jobToUserFitNode.get("reasons")));
-                result.setJobToUserFit(jobToUserFit);
-            }
-            
-            // Парсим userToJobFit
-            JsonNode userToJobFitNode = jsonNode.get("userToJobFit");
-            if (userToJobFitNode != null) {
-                EvaluationResult.UserToJobFit userToJobFit = new EvaluationResult.UserToJobFit();
-                userToJobFit.setScore(validateScore(userToJobFitNode.get("score").asInt()));
-                userToJobFit.setReasons(parseReasons(userToJobFitNode.get("reasons")));
-                
-                // Парсим missingSkills
-                JsonNode missingSkillsNode = userToJobFitNode.get("missingSkills");
-                if (missingSkillsNode != null && missingSkillsNode.isArray()) {
-                    List<String> missingSkills = new ArrayList<>();
-                    for (JsonNode skillNode : missingSkillsNode) {
-                        missingSkills.add(skillNode.asText());
-                    }
-                    userToJobFit.setMissingSkills(missingSkills);
-                }
-                
-                result.setUserToJobFit(userToJobFit);
-            }
-            
-            // Парсим suggestion
-            JsonNode suggestionNode = jsonNode.get("suggestion");
-            if (suggestionNode != null) {
-                String suggestion = suggestionNode.asText();
-                if ("Apply".equalsIgnoreCase(suggestion) || "Skip".equalsIgnoreCase(suggestion)) {
-                    result.setSuggestion(suggestion);
-                } else {
-                    result.setSuggestion("Skip"); // По умолчанию
-                }
-            }
-            
-            // Парсим confidence
-            JsonNode confidenceNode = jsonNode.get("confidence");
-            if (confidenceNode != null) {
-                double confidence = confidenceNode.asDouble();
-                result.setConfidence(Math.max(0.0, Math.min(1.0, confidence)));
-            }
-            
-            result.setRawModelJson(jsonNode);
-            return result;
-            
-        } catch (Exception e) {
-            log.error("Ошибка парсинга результата LLM: {}", e.getMessage());
-            // Возвращаем эвристическую оценку в случае ошибки
-            return evaluateWithHeuristics(vacancy, userProfile);
+    private EvaluationResult validateResult(EvaluationResult result, JsonNode json) {
+        if (result.getJobToUserFit() != null) {
+            result.getJobToUserFit().setScore(validateScore(result.getJobToUserFit().getScore()));
+            result.getJobToUserFit().setReasons(nonNull(result.getJobToUserFit().getReasons()));
         }
+        if (result.getUserToJobFit() != null) {
+            result.getUserToJobFit().setScore(validateScore(result.getUserToJobFit().getScore()));
+            result.getUserToJobFit().setReasons(nonNull(result.getUserToJobFit().getReasons()));
+        }
+        
+        String suggestion = result.getSuggestion();
+        if ("Apply".equalsIgnoreCase(suggestion)) {
+            result.setSuggestion("Apply");
+        } else {
+            result.setSuggestion("Skip"); // По умолчанию
+        }
+        
+        result.setConfidence(Math.max(0.0, Math.min(1.0, result.getConfidence())));
+        result.setRawModelJson(json);
+        return result;
     }
     
     /**
@@ -342,17 +318,8 @@ public class VacancyEvaluationService {
         return Math.max(0, Math.min(100, score));
     }
     
-    /**
-     * Парсит список причин
-     */
-    private List<String> parseReasons(JsonNode reasonsNode) {
-        List<String> reasons = new ArrayList<>();
-        if (reasonsNode != null && reasonsNode.isArray()) {
-            for (JsonNode reasonNode : reasonsNode) {
-                reasons.add(reasonNode.asText());
-            }
-        }
-        return reasons;
+    private static List<String> nonNull(List<String> values) {
+        return values != null ? values : new ArrayList<>();
     }
     
     /**
@@ -416,15 +383,47 @@ public class VacancyEvaluationService {
     }
     
     /**
-     * Закрывает WebDriver
+     * Метрики пула браузеров; пусто, если Selenium выключен
      */
+    public Optional<WebDriverPool.Snapshot> getWebDriverPoolMetrics() {
+        return seleniumFetcher != null ? Optional.of(seleniumFetcher.getPoolMetrics()) : Optional.empty();
+    }
+    
+    /**
+     * Время загрузки и объём страниц, загруженных браузером; пусто, если Selenium выключен
+     */
+    public Optional<SeleniumVacancyFetcher.PageStats> getSeleniumPageStats() {
+        return seleniumFetcher != null ? Optional.of(seleniumFetcher.getPageStats()) : Optional.empty();
+    }
+    
+    /**
+     * Попадания и промахи кэша вакансий; пусто, если кэш выключен
+     */
+    public Optional<VacancyCache.Snapshot> getVacancyCacheMetrics() {
+        return vacancyCache != null ? Optional.of(vacancyCache.snapshot()) : Optional.empty();
+    }
+    
+    /**
+     * Попадания и промахи кэша оценок; пусто, если кэш выключен
+     */
+    public Optional<EvaluationCache.Snapshot> getEvaluationCacheMetrics() {
+        return evaluationCache != null ? Optional.of(evaluationCache.snapshot()) : Optional.empty();
+    }
+    
+    /**
+     * Доля переоценок, задержка каждой модели и согласие моделей на пограничных вакансиях
+     */
+    public EvaluationRouter.Snapshot getRoutingMetrics() {
+        return router.snapshot();
+    }
+    
+    /**
+     * Закрывает браузеры, если они запускались; вызывается при остановке контекста
+     */
+    @PreDestroy
     public void close() {
-        if (driver != null) {
-            try {
-                driver.quit();
-            } catch (Exception e) {
-                log.warn("Ошибка при закрытии драйвера: {}", e.getMessage());
-            }
+        if (seleniumFetcher != null) {
+            seleniumFetcher.close();
         }
     }
-} 
\ No newline at end of file
+}
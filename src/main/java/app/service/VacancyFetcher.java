@@ -0,0 +1,17 @@
+package app.service;
+
+import app.model.Vacancy;
+
+import java.util.Optional;
+
+/**
+ * Источник данных вакансии по её ID
+ */
+public interface VacancyFetcher {
+    
+    /**
+     * Загружает и разбирает страницу вакансии
+     * @return Вакансия или пустой результат, если страницу получить или разобрать не удалось
+     */
+    Optional<Vacancy> fetch(String vacancyId);
+}
@@ -0,0 +1,266 @@
+package app.service;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул браузеров. WebDriver не потокобезопасен, поэтому каждый
+ * драйвер в один момент времени выдаётся только одному запросу.
+ * Драйверы создаются по требованию, проверяются перед выдачей, пересоздаются
+ * после maxPagesPerDriver страниц или сбоя и закрываются после простоя.
+ */
+public class WebDriverPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+    
+    /**
+     * Выданный из пула драйвер; вернуть через {@link #release(Lease, boolean)}
+     */
+    public static final class Lease {
+        private final WebDriver driver;
+        private int pages;
+        private long lastUsedNanos;
+        
+        private Lease(WebDriver driver) {
+            this.driver = driver;
+            this.lastUsedNanos = System.nanoTime();
+        }
+        
+        public WebDriver driver() {
+            return driver;
+        }
+    }
+    
+    public record Snapshot(int maxSize, int live, int idle, int inUse, double utilization, long borrows,
+                           long created, long recycled, long evicted, long healthCheckFailures,
+                           double avgWaitMs, long maxWaitMs, double avgStartMs, long lastStartMs) {}
+    
+    private final Supplier<WebDriver> factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final int maxPagesPerDriver;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+    private final Deque<Lease> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    
+    private int live;
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong healthCheckFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalStartNanos = new AtomicLong();
+    private volatile long lastStartNanos;
+    
+    public WebDriverPool(Supplier<WebDriver> factory, int maxSize, int minIdle, int maxPagesPerDriver,
+                         long idleTimeoutSec, long acquireTimeoutMs) {
+        this.factory = factory;
+        this.maxSize = Math.max(1, maxSize);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+        this.maxPagesPerDriver = Math.max(1, maxPagesPerDriver);
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(1, idleTimeoutSec));
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(this.maxSize, true);
+        
+        for (int i = 0; i < this.minIdle; i++) {
+            Lease lease = create();
+            synchronized (this) {
+                idle.push(lease);
+            }
+        }
+        
+        this.evictor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("webdriver-pool-evictor").daemon(true).factory());
+        long period = Math.max(1, Math.min(30, idleTimeoutSec / 2));
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.SECONDS);
+        log.info("Пул браузеров: до {} драйверов, пересоздание каждые {} страниц, простой до {} с",
+                this.maxSize, this.maxPagesPerDriver, idleTimeoutSec);
+    }
+    
+    /**
+     * Берёт исправный драйвер, ожидая свободного не дольше acquireTimeoutMs
+     */
+    public Lease borrow() throws InterruptedException {
+        long waitStart = System.nanoTime();
+        if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Нет свободного браузера за " + acquireTimeoutMs + " мс");
+        }
+        recordWait(System.nanoTime() - waitStart);
+        
+        try {
+            while (true) {
+                Lease lease;
+                synchronized (this) {
+                    if (closed) {
+                        throw new IllegalStateException("Пул браузеров закрыт");
+                    }
+                    lease = idle.poll();
+                }
+                if (lease == null) {
+                    lease = create();
+                } else if (!isHealthy(lease)) {
+                    healthCheckFailures.incrementAndGet();
+                    destroy(lease, "не прошёл проверку");
+                    continue;
+                }
+                borrows.incrementAndGet();
+                return lease;
+            }
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Возвращает драйвер в пул
+     * @param suspect true, если при работе с драйвером была ошибка: тогда он проверяется перед возвратом
+     */
+    public void release(Lease lease, boolean suspect) {
+        try {
+            lease.pages++;
+            lease.lastUsedNanos = System.nanoTime();
+            if (lease.pages >= maxPagesPerDriver) {
+                recycled.incrementAndGet();
+                destroy(lease, "отработал " + lease.pages + " страниц");
+                return;
+            }
+            if (suspect && !isHealthy(lease)) {
+                healthCheckFailures.incrementAndGet();
+                recycled.incrementAndGet();
+                destroy(lease, "сбой");
+                return;
+            }
+            synchronized (this) {
+                if (!closed) {
+                    idle.push(lease);
+                    return;
+                }
+            }
+            destroy(lease, "пул закрыт");
+        } finally {
+            permits.release();
+        }
+    }
+    
+    public synchronized Snapshot snapshot() {
+        long borrowCount = borrows.get();
+        int inUse = maxSize - permits.availablePermits();
+        return new Snapshot(maxSize, live, idle.size(), inUse, (double) inUse / maxSize, borrowCount,
+                created.get(), recycled.get(), evicted.get(), healthCheckFailures.get(),
+                borrowCount == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrowCount,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                created.get() == 0 ? 0.0 : totalStartNanos.get() / 1_000_000.0 / created.get(),
+                TimeUnit.NANOSECONDS.toMillis(lastStartNanos));
+    }
+    
+    /**
+     * Размер пула по умолчанию: половина ядер, но не больше одного браузера на ~512 МБ
+     * оперативной памяти машины и не больше 4
+     */
+    public static int defaultSize() {
+        int byCores = Runtime.getRuntime().availableProcessors() / 2;
+        long totalMemory = Runtime.getRuntime().maxMemory();
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            totalMemory = os.getTotalMemorySize();
+        }
+        int byMemory = (int) (totalMemory / (512L * 1024 * 1024));
+        return Math.max(1, Math.min(4, Math.min(byCores, byMemory)));
+    }
+    
+    private Lease create() {
+        long start = System.nanoTime();
+        WebDriver driver = factory.get();
+        synchronized (this) {
+            live++;
+        }
+        long elapsed = System.nanoTime() - start;
+        totalStartNanos.addAndGet(elapsed);
+        lastStartNanos = elapsed;
+        created.incrementAndGet();
+        log.info("Запущен браузер за {} мс", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return new Lease(driver);
+    }
+    
+    private void destroy(Lease lease, String reason) {
+        synchronized (this) {
+            live--;
+        }
+        log.info("Закрываем браузер: {}", reason);
+        try {
+            lease.driver.quit();
+        } catch (Exception e) {
+            log.warn("Ошибка при закрытии драйвера: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Дешёвый запрос к драйверу: падает, если Chrome или сессия умерли
+     */
+    private static boolean isHealthy(Lease lease) {
+        try {
+            lease.driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+    
+    private void evictIdle() {
+        List<Lease> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            // Самые давно простаивающие - в хвосте очереди
+            Iterator<Lease> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                Lease lease = it.next();
+                if (now - lease.lastUsedNanos < idleTimeoutNanos) {
+                    break;
+                }
+                it.remove();
+                expired.add(lease);
+            }
+        }
+        for (Lease lease : expired) {
+            evicted.incrementAndGet();
+            destroy(lease, "простой");
+        }
+    }
+    
+    @Override
+    public void close() {
+        List<Lease> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        evictor.shutdownNow();
+        for (Lease lease : toClose) {
+            destroy(lease, "пул закрыт");
+        }
+    }
+}
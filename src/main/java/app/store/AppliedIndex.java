@@ -0,0 +1,96 @@
+package app.store;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the applied table for duplicate checks.
+ * hh.ru vacancy ids are numeric, so they are kept as a sorted long[] (8 bytes each)
+ * and found by binary search. Ids added since the last compaction sit in a small
+ * concurrent set and are merged into the array once it grows past a threshold.
+ * Anything that is not a plain number goes to a separate string set.
+ */
+class AppliedIndex {
+    private static final int COMPACT_THRESHOLD = 1024;
+    
+    private volatile long[] sorted;
+    private final Set<Long> recent = ConcurrentHashMap.newKeySet();
+    private final Set<String> nonNumeric = ConcurrentHashMap.newKeySet();
+    
+    AppliedIndex(long[] ids, Set<String> nonNumericIds) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        this.sorted = copy;
+        this.nonNumeric.addAll(nonNumericIds);
+    }
+    
+    boolean contains(String vacancyId) {
+        long id = parseId(vacancyId);
+        if (id < 0) {
+            return nonNumeric.contains(vacancyId);
+        }
+        // recent before sorted: compaction publishes the new array before clearing recent
+        return recent.contains(id) || Arrays.binarySearch(sorted, id) >= 0;
+    }
+    
+    void add(String vacancyId) {
+        long id = parseId(vacancyId);
+        if (id < 0) {
+            nonNumeric.add(vacancyId);
+            return;
+        }
+        recent.add(id);
+        if (recent.size() >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+    
+    int size() {
+        return sorted.length + recent.size() + nonNumeric.size();
+    }
+    
+    private synchronized void compact() {
+        if (recent.size() < COMPACT_THRESHOLD) {
+            return;
+        }
+        Long[] pending = recent.toArray(new Long[0]);
+        long[] base = sorted;
+        long[] merged = Arrays.copyOf(base, base.length + pending.length);
+        int n = base.length;
+        for (Long id : pending) {
+            if (Arrays.binarySearch(base, id) < 0) {
+                merged[n++] = id;
+            }
+        }
+        merged = Arrays.copyOf(merged, n);
+        Arrays.sort(merged);
+        sorted = merged;
+        for (Long id : pending) {
+            recent.remove(id);
+        }
+    }
+    
+    /**
+     * @return the id as a non-negative long, or -1 if it is not a plain decimal number
+     */
+    static long parseId(String vacancyId) {
+        int length = vacancyId.length();
+        if (length == 0 || length > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = vacancyId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        // "007" and "7" are different rows in the table, keep such ids as strings
+        if (length > 1 && vacancyId.charAt(0) == '0') {
+            return -1;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,218 @@
+package app.store;
+
+import app.model.ApplyLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves log inserts off the caller's thread.
+ * Entries go into a bounded queue; a background thread drains it and writes every
+ * batchSize entries or every flushIntervalMs, whichever comes first, in a single
+ * transaction, so a run pays one fsync per batch instead of one per log line.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(AsyncLogWriter.class);
+    
+    public enum OverflowPolicy { BLOCK, DROP }
+    
+    /**
+     * Writes one batch; runs inside a transaction on the writer connection.
+     * Returns work to run once that transaction has committed, or null.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        Runnable write(SqliteConnectionPool.Handle db, List<ApplyLog> batch) throws SQLException;
+    }
+    
+    public record Snapshot(int queueDepth, int queueCapacity, long written, long dropped, long failed,
+                           long batches, int lastBatchSize, int maxBatchSize, double avgBatchSize) {}
+    
+    private final SqliteConnectionPool pool;
+    private final BatchSink sink;
+    private final BlockingQueue<ApplyLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread worker;
+    private volatile boolean running = true;
+    
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    
+    public AsyncLogWriter(SqliteConnectionPool pool, BatchSink sink, int capacity, int batchSize,
+                          long flushIntervalMs, OverflowPolicy overflowPolicy) {
+        this.pool = pool;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.overflowPolicy = overflowPolicy;
+        this.worker = Thread.ofPlatform().name("sqlite-log-writer").daemon(true).start(this::runLoop);
+    }
+    
+    /**
+     * Queues an entry. With BLOCK the caller waits for space; with DROP a full
+     * queue discards the entry and counts it.
+     */
+    public void submit(ApplyLog entry) {
+        if (!running) {
+            log.warn("Log writer is closed, dropping entry for vacancy {}", entry.vacancyId());
+            dropped.increment();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (queue.offer(entry)) {
+                enqueued.incrementAndGet();
+                writeIfClosedMeanwhile(entry);
+            } else {
+                dropped.increment();
+            }
+            return;
+        }
+        try {
+            queue.put(entry);
+            enqueued.incrementAndGet();
+            writeIfClosedMeanwhile(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        }
+    }
+    
+    /**
+     * close() may have run between the running check and the enqueue, in which case the
+     * worker's final drain can miss the entry. If it is still queued, write it on the caller's thread.
+     */
+    private void writeIfClosedMeanwhile(ApplyLog entry) {
+        if (!running && queue.remove(entry)) {
+            writeBatch(List.of(entry));
+        }
+    }
+    
+    /**
+     * Blocks until everything queued before this call has been written
+     * @param timeoutMs Upper bound for the wait
+     * @return true if the queue was flushed in time
+     */
+    public boolean flush(long timeoutMs) {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (processed) {
+            while (processed.get() < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !worker.isAlive()) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(processed, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public Snapshot snapshot() {
+        long batchCount = batches.sum();
+        long writtenCount = written.sum();
+        return new Snapshot(queue.size(), queue.size() + queue.remainingCapacity(), writtenCount, dropped.sum(),
+                failed.sum(), batchCount, lastBatchSize, maxBatchSize,
+                batchCount == 0 ? 0.0 : (double) (writtenCount + failed.sum()) / batchCount);
+    }
+    
+    private void runLoop() {
+        List<ApplyLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ApplyLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Keep collecting until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    ApplyLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts a waiting worker; the loop condition decides whether to drain more
+            }
+            
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void writeBatch(List<ApplyLog> batch) {
+        try {
+            Runnable afterCommit = pool.transaction(db -> sink.write(db, batch));
+            written.add(batch.size());
+            if (afterCommit != null) {
+                afterCommit.run();
+            }
+        } catch (SQLException | RuntimeException e) {
+            failed.add(batch.size());
+            log.error("Failed to write batch of {} log entries", batch.size(), e);
+        }
+        
+        batches.increment();
+        lastBatchSize = batch.size();
+        if (batch.size() > maxBatchSize) {
+            maxBatchSize = batch.size();
+        }
+        
+        synchronized (processed) {
+            processed.addAndGet(batch.size());
+            processed.notifyAll();
+        }
+    }
+    
+    /**
+     * Stops accepting entries and writes out everything still queued
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive() || !queue.isEmpty()) {
+            log.warn("Log writer stopped with {} entries still queued", queue.size());
+        } else {
+            log.info("Log writer flushed and stopped: written={}, dropped={}, failed={}",
+                    written.sum(), dropped.sum(), failed.sum());
+        }
+    }
+}
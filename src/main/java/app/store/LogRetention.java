@@ -0,0 +1,329 @@
+package app.store;
+
+import app.config.Env;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the logs table within an age and row budget.
+ * Expired rows are appended to daily gzip NDJSON files in the archive directory
+ * and only then deleted, a small batch per write transaction so the log writer
+ * is never locked out for long. A crash in between archives a batch twice but never
+ * loses it. Freed pages go back to the OS with incremental vacuum once the database is in
+ * incremental auto_vacuum mode.
+ * The stats table is not touched: its counters are cumulative and outlive the rows.
+ */
+@Component
+public class LogRetention {
+    private static final Logger log = LoggerFactory.getLogger(LogRetention.class);
+    
+    private static final String SQL_AGE_CUTOFF = "SELECT MAX(id) FROM logs WHERE timestamp < ?";
+    private static final String SQL_BUDGET_CUTOFF = "SELECT id FROM logs ORDER BY id DESC LIMIT 1 OFFSET ?";
+    private static final String SQL_EXPIRED = "SELECT id, vacancy_id, action, message, timestamp FROM logs "
+            + "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final String SQL_DELETE = "DELETE FROM logs WHERE id >= ? AND id <= ?";
+    // Up to this size the one-time VACUUM takes well under busy_timeout, so it runs without opt-in
+    private static final long AUTO_CONVERT_MAX_BYTES = 16L * 1024 * 1024;
+    
+    /**
+     * One archived row; timestamp is kept as loaded so the archive matches the table
+     */
+    private record ExpiredLog(long id, String vacancyId, String action, String message, LocalDateTime timestamp) {}
+    
+    private record VacuumState(long autoVacuum, long bytes) {}
+    
+    public record Snapshot(long runs, long archivedRows, long deletedRows, long vacuumedPages,
+                           String lastRunAt, long lastRunMs) {}
+    
+    private final Env env;
+    private final SqliteStore store;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private ScheduledExecutorService scheduler;
+    
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong deletedRows = new AtomicLong();
+    private final AtomicLong vacuumedPages = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMs;
+    
+    public LogRetention(Env env, SqliteStore store) {
+        this.env = env;
+        this.store = store;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (env.getLogRetentionDays() <= 0 && env.getLogRetentionMaxRows() <= 0) {
+            log.info("Log retention disabled");
+            return;
+        }
+        int intervalMin = Math.max(1, env.getLogRetentionIntervalMin());
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("log-retention").daemon(true).factory());
+        scheduler.execute(this::enableIncrementalVacuum);
+        scheduler.scheduleWithFixedDelay(this::runSafely, 1, intervalMin, TimeUnit.MINUTES);
+        log.info("Log retention: {} days, {} rows max, every {} min, archive in {}",
+                env.getLogRetentionDays(), env.getLogRetentionMaxRows(), intervalMin, env.getLogArchiveDir());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public Snapshot snapshot() {
+        LocalDateTime at = lastRunAt;
+        return new Snapshot(runs.get(), archivedRows.get(), deletedRows.get(), vacuumedPages.get(),
+                at == null ? null : at.toString(), lastRunMs);
+    }
+    
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (Exception e) {
+            log.error("Log retention run failed", e);
+        }
+    }
+    
+    /**
+     * Archives and deletes everything past the budget, then vacuums
+     * @return number of deleted rows
+     */
+    public long runOnce() throws SQLException, IOException {
+        long start = System.nanoTime();
+        SqliteConnectionPool pool = store.pool();
+        long cutoff = findCutoffId(pool);
+        long deleted = 0;
+        
+        long lastId = 0;
+        int batchSize = Math.max(1, env.getLogRetentionBatchSize());
+        while (cutoff > lastId && !Thread.currentThread().isInterrupted()) {
+            List<ExpiredLog> batch = loadBatch(pool, lastId, cutoff, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            archive(batch);
+            long fromId = batch.get(0).id();
+            long toId = batch.get(batch.size() - 1).id();
+            deleted += pool.write(db -> {
+                PreparedStatement stmt = db.prepare(SQL_DELETE);
+                stmt.setLong(1, fromId);
+                stmt.setLong(2, toId);
+                return stmt.executeUpdate();
+            });
+            lastId = toId;
+        }
+        
+        if (deleted > 0) {
+            archivedRows.addAndGet(deleted);
+            deletedRows.addAndGet(deleted);
+            vacuum(pool);
+            log.info("Log retention archived and deleted {} rows up to id {}", deleted, lastId);
+        }
+        runs.incrementAndGet();
+        lastRunAt = LocalDateTime.now();
+        lastRunMs = (System.nanoTime() - start) / 1_000_000;
+        return deleted;
+    }
+    
+    /**
+     * Highest id that is over budget, or 0 if nothing is. Ids grow with insert order,
+     * so both limits reduce to "everything up to this id".
+     */
+    private long findCutoffId(SqliteConnectionPool pool) throws SQLException {
+        int days = env.getLogRetentionDays();
+        int maxRows = env.getLogRetentionMaxRows();
+        return pool.read(db -> {
+            long cutoff = 0;
+            if (days > 0) {
+                PreparedStatement stmt = db.prepare(SQL_AGE_CUTOFF);
+                stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusDays(days)));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        cutoff = Math.max(cutoff, rs.getLong(1));
+                    }
+                }
+            }
+            if (maxRows > 0) {
+                PreparedStatement stmt = db.prepare(SQL_BUDGET_CUTOFF);
+                stmt.setInt(1, maxRows);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        cutoff = Math.max(cutoff, rs.getLong(1));
+                    }
+                }
+            }
+            return cutoff;
+        });
+    }
+    
+    private List<ExpiredLog> loadBatch(SqliteConnectionPool pool, long afterId, long cutoff, int batchSize)
+            throws SQLException {
+        return pool.read(db -> {
+            PreparedStatement stmt = db.prepare(SQL_EXPIRED);
+            stmt.setLong(1, afterId);
+            stmt.setLong(2, cutoff);
+            stmt.setInt(3, batchSize);
+            List<ExpiredLog> batch = new ArrayList<>(batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    batch.add(new ExpiredLog(
+                        rs.getLong("id"),
+                        rs.getString("vacancy_id"),
+                        rs.getString("action"),
+                        rs.getString("message"),
+                        rs.getTimestamp("timestamp").toLocalDateTime()
+                    ));
+                }
+            }
+            return batch;
+        });
+    }
+    
+    /**
+     * Appends rows to logs-YYYY-MM-DD.ndjson.gz by the day they were written.
+     * Every call adds a new gzip member; gzip readers treat concatenated members as one stream.
+     */
+    private void archive(List<ExpiredLog> batch) throws IOException {
+        Path dir = Path.of(env.getLogArchiveDir());
+        Files.createDirectories(dir);
+        
+        Map<LocalDate, List<ExpiredLog>> byDay = new LinkedHashMap<>();
+        for (ExpiredLog entry : batch) {
+            byDay.computeIfAbsent(entry.timestamp().toLocalDate(), d -> new ArrayList<>()).add(entry);
+        }
+        
+        for (Map.Entry<LocalDate, List<ExpiredLog>> day : byDay.entrySet()) {
+            Path file = dir.resolve("logs-" + day.getKey() + ".ndjson.gz");
+            try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                for (ExpiredLog entry : day.getValue()) {
+                    writeLine(gzip, entry);
+                }
+                gzip.finish();
+                out.flush();
+            }
+        }
+    }
+    
+    private void writeLine(OutputStream out, ExpiredLog entry) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeNumberField("id", entry.id());
+        json.writeStringField("vacancyId", entry.vacancyId());
+        json.writeStringField("action", entry.action());
+        json.writeStringField("message", entry.message());
+        json.writeStringField("timestamp", entry.timestamp().toString());
+        json.writeEndObject();
+        json.flush();
+        out.write('\n');
+    }
+    
+    /**
+     * auto_vacuum only takes effect after a full VACUUM, so an existing database is converted once.
+     * VACUUM rewrites the whole file and holds the writer for the duration, so a large database
+     * is only converted when DB_VACUUM_CONVERT is set; until then freed pages are reused in place.
+     */
+    private void enableIncrementalVacuum() {
+        try {
+            SqliteConnectionPool pool = store.pool();
+            VacuumState state = pool.read(db -> {
+                try (Statement stmt = db.connection().createStatement()) {
+                    return new VacuumState(pragma(stmt, "auto_vacuum"),
+                            pragma(stmt, "page_count") * pragma(stmt, "page_size"));
+                }
+            });
+            if (state.autoVacuum() == 2) {
+                return;
+            }
+            if (state.bytes() > AUTO_CONVERT_MAX_BYTES && !env.isDbVacuumConvert()) {
+                log.info("Database is {} MB without incremental auto_vacuum; freed pages are reused but the file "
+                        + "does not shrink. Set DB_VACUUM_CONVERT=true to convert it with a one-time VACUUM",
+                        state.bytes() / (1024 * 1024));
+                return;
+            }
+            pool.write(db -> {
+                try (Statement stmt = db.connection().createStatement()) {
+                    log.info("Switching database to incremental auto_vacuum, running a one-time VACUUM");
+                    stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                    stmt.execute("VACUUM");
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            log.warn("Could not enable incremental vacuum", e);
+        }
+    }
+    
+    private void vacuum(SqliteConnectionPool pool) throws SQLException {
+        int pages = Math.max(0, env.getDbVacuumPages());
+        if (pages == 0) {
+            return;
+        }
+        long freed = pool.write(db -> {
+            try (Statement stmt = db.connection().createStatement()) {
+                long initial = pragma(stmt, "freelist_count");
+                long remaining = initial;
+                // The pragma frees one page per step, so drain its rows and repeat while it makes progress
+                while (remaining > 0 && initial - remaining < pages) {
+                    if (stmt.execute("PRAGMA incremental_vacuum(" + (pages - (initial - remaining)) + ")")) {
+                        try (ResultSet rs = stmt.getResultSet()) {
+                            while (rs.next()) {
+                                // each row is one freed page
+                            }
+                        }
+                    }
+                    long now = pragma(stmt, "freelist_count");
+                    if (now >= remaining) {
+                        break;
+                    }
+                    remaining = now;
+                }
+                return initial - remaining;
+            }
+        });
+        vacuumedPages.addAndGet(Math.max(0, freed));
+    }
+    
+    private static long pragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package app.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One writer plus a few reader connections to the same SQLite file.
+ * WAL mode lets readers run while the writer commits; the in-process lock keeps
+ * writes serialized so they never hit SQLITE_BUSY against each other.
+ * Each connection caches its prepared statements, so hot queries are parsed once.
+ */
+public class SqliteConnectionPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SqliteConnectionPool.class);
+    
+    /**
+     * Work done with a borrowed connection
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Handle handle) throws SQLException;
+    }
+    
+    /**
+     * A pooled connection with its statement cache. Statements returned by
+     * {@link #prepare(String)} are owned by the handle and must not be closed by callers.
+     */
+    public static final class Handle {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        
+        private Handle(Connection connection) {
+            this.connection = connection;
+        }
+        
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            return stmt;
+        }
+        
+        public Connection connection() {
+            return connection;
+        }
+        
+        private void close() {
+            for (PreparedStatement stmt : statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // closing anyway
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Failed to close SQLite connection", e);
+            }
+        }
+    }
+    
+    private final Handle writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<Handle> readers;
+    private final List<Handle> allReaders = new ArrayList<>();
+    
+    public SqliteConnectionPool(String dbPath, int readerCount, int cacheSizeKb, int mmapSizeMb, int busyTimeoutMs)
+            throws SQLException {
+        String url = "jdbc:sqlite:" + dbPath;
+        
+        this.writer = new Handle(open(url, cacheSizeKb, mmapSizeMb, busyTimeoutMs));
+        try (Statement stmt = writer.connection.createStatement()) {
+            // journal_mode is persistent for the database file, setting it once is enough
+            stmt.execute("PRAGMA journal_mode=WAL");
+        }
+        
+        int count = Math.max(1, readerCount);
+        this.readers = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) {
+            Handle reader = new Handle(open(url, cacheSizeKb, mmapSizeMb, busyTimeoutMs));
+            allReaders.add(reader);
+            readers.add(reader);
+        }
+        
+        log.info("SQLite pool opened: 1 writer, {} readers, cache={}KB, mmap={}MB", count, cacheSizeKb, mmapSizeMb);
+    }
+    
+    private static Connection open(String url, int cacheSizeKb, int mmapSizeMb, int busyTimeoutMs) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            stmt.execute("PRAGMA cache_size=-" + Math.max(0, cacheSizeKb));
+            stmt.execute("PRAGMA mmap_size=" + (long) Math.max(0, mmapSizeMb) * 1024 * 1024);
+            stmt.execute("PRAGMA temp_store=MEMORY");
+            stmt.execute("PRAGMA busy_timeout=" + Math.max(0, busyTimeoutMs));
+        }
+        return connection;
+    }
+    
+    /**
+     * Runs work on the writer connection in autocommit mode
+     */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            return work.run(writer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Runs work on the writer connection inside one transaction
+     */
+    public <T> T transaction(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            Connection connection = writer.connection;
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(writer);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Runs work on a reader connection, waiting for one to become free
+     */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        Handle handle;
+        try {
+            handle = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a SQLite reader connection", e);
+        }
+        try {
+            return work.run(handle);
+        } finally {
+            readers.add(handle);
+        }
+    }
+    
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+        allReaders.forEach(Handle::close);
+    }
+}
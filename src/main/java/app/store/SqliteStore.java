@@ -2,24 +2,99 @@ package app.store;
 
 import app.config.Env;
 import app.model.ApplyLog;
+import app.model.ApplyStats;
+import app.model.LogPage;
+import app.model.Vacancy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Component
 public class SqliteStore {
     private static final Logger log = LoggerFactory.getLogger(SqliteStore.class);
     
+    private static final String SQL_MARK_APPLIED = "INSERT INTO applied (vacancy_id, applied_at) VALUES (?, ?)";
+    private static final String SQL_ADD_LOG = "INSERT INTO logs (vacancy_id, action, message, timestamp) VALUES (?, ?, ?, ?)";
+    private static final String SQL_APPLIED_IDS = "SELECT vacancy_id FROM applied";
+    private static final String SQL_CACHED_VACANCY = "SELECT title, company, location, salary_raw, skills, description, "
+            + "employment_type, work_format, source_url FROM vacancy_cache WHERE vacancy_id = ? AND fetched_at >= ?";
+    private static final String SQL_CACHE_VACANCY = "INSERT OR REPLACE INTO vacancy_cache (vacancy_id, title, company, "
+            + "location, salary_raw, skills, description, employment_type, work_format, source_url, fetched_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_PRUNE_VACANCIES = "DELETE FROM vacancy_cache WHERE fetched_at < ?";
+    private static final String SQL_FIND_EVALUATION = "SELECT result FROM evaluations WHERE eval_key = ?";
+    private static final String SQL_STALE_EVALUATIONS = "DELETE FROM evaluations WHERE vacancy_id = ? AND content_hash <> ?";
+    private static final String SQL_SAVE_EVALUATION = "INSERT OR REPLACE INTO evaluations "
+            + "(eval_key, vacancy_id, content_hash, model, result, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    /**
+     * Schema changes applied on top of createTables, in order. PRAGMA user_version
+     * holds how many have run, so add new steps at the end and never edit old ones.
+     */
+    private static final List<String> MIGRATIONS = List.of(
+        "CREATE INDEX IF NOT EXISTS idx_logs_timestamp ON logs (timestamp)",
+        "CREATE INDEX IF NOT EXISTS idx_logs_action_timestamp ON logs (action, timestamp)",
+        "CREATE INDEX IF NOT EXISTS idx_logs_vacancy_timestamp ON logs (vacancy_id, timestamp)",
+        "CREATE TABLE IF NOT EXISTS stats (name TEXT PRIMARY KEY, value INTEGER NOT NULL)",
+        // Backfill the counters from history written before the stats table existed
+        "INSERT INTO stats (name, value) SELECT '" + StatsCounters.APPLIED_TOTAL + "', COUNT(*) FROM applied",
+        "INSERT INTO stats (name, value) SELECT '" + StatsCounters.APPLIED_DAY_PREFIX + "' || "
+            + "CASE typeof(applied_at) WHEN 'integer' THEN date(applied_at / 1000, 'unixepoch', 'localtime') "
+            + "ELSE date(applied_at) END, COUNT(*) FROM applied GROUP BY 1",
+        "INSERT INTO stats (name, value) SELECT '" + StatsCounters.SKIPS + "', COUNT(*) FROM logs WHERE action = 'SKIP'",
+        "INSERT INTO stats (name, value) SELECT '" + StatsCounters.FAILURE_PREFIX + "' || "
+            // Same rule as StatsCounters.failureStatus: only an all-digit code after the prefix
+            + "CASE WHEN message GLOB 'Status: *' AND trim(substr(message, 9)) <> '' "
+            + "AND trim(substr(message, 9)) NOT GLOB '*[^0-9]*' THEN trim(substr(message, 9)) ELSE 'error' END, COUNT(*) "
+            + "FROM logs WHERE action = 'APPLY_FAIL' GROUP BY 1",
+        """
+            CREATE TABLE IF NOT EXISTS vacancy_cache (
+                vacancy_id TEXT PRIMARY KEY,
+                title TEXT,
+                company TEXT,
+                location TEXT,
+                salary_raw TEXT,
+                skills TEXT,
+                description TEXT,
+                employment_type TEXT,
+                work_format TEXT,
+                source_url TEXT,
+                fetched_at INTEGER NOT NULL
+            )
+        """,
+        """
+            CREATE TABLE IF NOT EXISTS evaluations (
+                eval_key TEXT PRIMARY KEY,
+                vacancy_id TEXT NOT NULL,
+                content_hash TEXT NOT NULL,
+                model TEXT NOT NULL,
+                result TEXT NOT NULL,
+                created_at INTEGER NOT NULL
+            )
+        """,
+        "CREATE INDEX IF NOT EXISTS idx_evaluations_vacancy ON evaluations (vacancy_id)"
+    );
+    
     private final Env env;
     private String dbPath;
+    private SqliteConnectionPool pool;
+    private AsyncLogWriter logWriter;
+    private AppliedIndex appliedIndex;
+    private final StatsCounters stats = new StatsCounters();
     
     public SqliteStore(Env env) {
         this.env = env;
@@ -28,116 +103,407 @@ public class SqliteStore {
     @PostConstruct
     public void init() {
         dbPath = env.getDbPath();
+        File parent = new File(dbPath).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        
+        try {
+            pool = new SqliteConnectionPool(dbPath, env.getDbReadConnections(), env.getDbCacheSizeKb(),
+                    env.getDbMmapSizeMb(), env.getDbBusyTimeoutMs());
+        } catch (SQLException e) {
+            log.error("Failed to open database", e);
+            throw new RuntimeException("Database initialization failed", e);
+        }
         createTables();
+        migrate();
+        loadAppliedIndex();
+        loadStats();
+        
+        AsyncLogWriter.OverflowPolicy overflowPolicy =
+                "drop".equals(env.getDbLogOverflowPolicy().trim().toLowerCase(Locale.ROOT))
+                        ? AsyncLogWriter.OverflowPolicy.DROP
+                        : AsyncLogWriter.OverflowPolicy.BLOCK;
+        logWriter = new AsyncLogWriter(pool, this::insertLogs, env.getDbLogQueueCapacity(),
+                env.getDbLogBatchSize(), env.getDbLogFlushIntervalMs(), overflowPolicy);
+    }
+    
+    @PreDestroy
+    public void close() {
+        // Drain queued logs while the writer connection is still open
+        if (logWriter != null) {
+            logWriter.close();
+            logWriter = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
     
     private void createTables() {
         try {
-            File dbFile = new File(dbPath);
-            dbFile.getParentFile().mkdirs();
-            
-            try (Connection conn = getConnection()) {
-                // Create applied table
-                conn.createStatement().execute("""
-                    CREATE TABLE IF NOT EXISTS applied (
-                        vacancy_id TEXT PRIMARY KEY,
-                        applied_at TIMESTAMP NOT NULL
-                    )
-                """);
-                
-                // Create logs table
-                conn.createStatement().execute("""
-                    CREATE TABLE IF NOT EXISTS logs (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        vacancy_id TEXT NOT NULL,
-                        action TEXT NOT NULL,
-                        message TEXT,
-                        timestamp TIMESTAMP NOT NULL
-                    )
-                """);
-                
-                log.info("Database initialized at: {}", dbPath);
-            }
+            pool.write(db -> {
+                try (Statement stmt = db.connection().createStatement()) {
+                    // Create applied table
+                    stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS applied (
+                            vacancy_id TEXT PRIMARY KEY,
+                            applied_at TIMESTAMP NOT NULL
+                        )
+                    """);
+                    
+                    // Create logs table
+                    stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS logs (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            vacancy_id TEXT NOT NULL,
+                            action TEXT NOT NULL,
+                            message TEXT,
+                            timestamp TIMESTAMP NOT NULL
+                        )
+                    """);
+                }
+                return null;
+            });
+            log.info("Database initialized at: {}", dbPath);
         } catch (SQLException e) {
             log.error("Failed to initialize database", e);
             throw new RuntimeException("Database initialization failed", e);
         }
     }
     
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+    private void migrate() {
+        try {
+            int applied = pool.transaction(db -> {
+                int version;
+                try (Statement stmt = db.connection().createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                    version = rs.next() ? rs.getInt(1) : 0;
+                }
+                try (Statement stmt = db.connection().createStatement()) {
+                    for (int i = version; i < MIGRATIONS.size(); i++) {
+                        stmt.execute(MIGRATIONS.get(i));
+                    }
+                    if (version < MIGRATIONS.size()) {
+                        stmt.execute("PRAGMA user_version = " + MIGRATIONS.size());
+                    }
+                }
+                return Math.max(0, MIGRATIONS.size() - version);
+            });
+            if (applied > 0) {
+                log.info("Applied {} schema migration(s), schema version is now {}", applied, MIGRATIONS.size());
+            }
+        } catch (SQLException e) {
+            log.error("Failed to migrate database schema", e);
+            throw new RuntimeException("Database migration failed", e);
+        }
     }
     
-    public boolean isApplied(String vacancyId) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM applied WHERE vacancy_id = ?")) {
-            stmt.setString(1, vacancyId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
+    private void loadAppliedIndex() {
+        long start = System.nanoTime();
+        try {
+            appliedIndex = pool.read(db -> {
+                long[] ids = new long[1024];
+                int count = 0;
+                Set<String> nonNumeric = new HashSet<>();
+                PreparedStatement stmt = db.prepare(SQL_APPLIED_IDS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String vacancyId = rs.getString(1);
+                        long id = AppliedIndex.parseId(vacancyId);
+                        if (id < 0) {
+                            nonNumeric.add(vacancyId);
+                            continue;
+                        }
+                        if (count == ids.length) {
+                            ids = Arrays.copyOf(ids, count * 2);
+                        }
+                        ids[count++] = id;
+                    }
+                }
+                return new AppliedIndex(Arrays.copyOf(ids, count), nonNumeric);
+            });
+        } catch (SQLException e) {
+            log.error("Failed to load applied vacancies", e);
+            throw new RuntimeException("Database initialization failed", e);
+        }
+        log.info("Loaded {} applied vacancies into memory in {} ms",
+                appliedIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    private void loadStats() {
+        try {
+            pool.read(db -> {
+                stats.load(db);
+                return null;
+            });
         } catch (SQLException e) {
-            log.error("Failed to check if vacancy {} is applied", vacancyId, e);
-            return false;
+            log.error("Failed to load stats", e);
+            throw new RuntimeException("Database initialization failed", e);
         }
     }
     
+    /**
+     * Answered from the in-memory index, no database access
+     */
+    public boolean isApplied(String vacancyId) {
+        return appliedIndex.contains(vacancyId);
+    }
+    
     public void markApplied(String vacancyId) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("INSERT INTO applied (vacancy_id, applied_at) VALUES (?, ?)")) {
-            stmt.setString(1, vacancyId);
-            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.executeUpdate();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, Long> deltas = StatsCounters.forApplied(now.toLocalDate());
+            pool.transaction(db -> {
+                PreparedStatement stmt = db.prepare(SQL_MARK_APPLIED);
+                stmt.setString(1, vacancyId);
+                stmt.setTimestamp(2, Timestamp.valueOf(now));
+                stmt.executeUpdate();
+                StatsCounters.write(db, deltas);
+                return null;
+            });
+            appliedIndex.add(vacancyId);
+            stats.apply(deltas);
             log.info("Marked vacancy {} as applied", vacancyId);
         } catch (SQLException e) {
             log.error("Failed to mark vacancy {} as applied", vacancyId, e);
         }
     }
     
+    /**
+     * Queues the entry for the background writer; it reaches the table within one flush interval
+     */
     public void addLog(ApplyLog logEntry) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("INSERT INTO logs (vacancy_id, action, message, timestamp) VALUES (?, ?, ?, ?)")) {
+        logWriter.submit(logEntry);
+    }
+    
+    /**
+     * Waits until every log queued so far is written
+     * @return false if the writer did not catch up within the timeout
+     */
+    public boolean flushLogs(long timeoutMs) {
+        return logWriter.flush(timeoutMs);
+    }
+    
+    SqliteConnectionPool pool() {
+        return pool;
+    }
+    
+    public AsyncLogWriter.Snapshot getLogWriterMetrics() {
+        return logWriter.snapshot();
+    }
+    
+    /**
+     * Dashboard counters from memory, no table scans
+     */
+    public ApplyStats getStats() {
+        return stats.snapshot();
+    }
+    
+    private Runnable insertLogs(SqliteConnectionPool.Handle db, List<ApplyLog> batch) throws SQLException {
+        PreparedStatement stmt = db.prepare(SQL_ADD_LOG);
+        for (ApplyLog logEntry : batch) {
             stmt.setString(1, logEntry.vacancyId());
             stmt.setString(2, logEntry.action());
             stmt.setString(3, logEntry.message());
             stmt.setTimestamp(4, Timestamp.valueOf(logEntry.timestamp()));
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            log.error("Failed to add log entry", e);
+            stmt.addBatch();
         }
+        stmt.executeBatch();
+        
+        Map<String, Long> deltas = StatsCounters.forLogs(batch);
+        StatsCounters.write(db, deltas);
+        return () -> stats.apply(deltas);
     }
     
     public List<ApplyLog> getRecentLogs(int limit) {
+        return getLogs(null, null, null, limit).items();
+    }
+    
+    /**
+     * Pages through logs newest first using keyset pagination, so every page costs
+     * the same index range scan no matter how deep it is.
+     * @param action Only this action, or null for all
+     * @param vacancyId Only this vacancy, or null for all
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit Page size
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public LogPage getLogs(String action, String vacancyId, String cursor, int limit) {
+        long[] after = cursor == null || cursor.isBlank() ? null : parseCursor(cursor);
+        
+        StringBuilder sql = new StringBuilder("SELECT id, vacancy_id, action, message, timestamp FROM logs WHERE 1 = 1");
+        if (action != null) {
+            sql.append(" AND action = ?");
+        }
+        if (vacancyId != null) {
+            sql.append(" AND vacancy_id = ?");
+        }
+        if (after != null) {
+            // the first condition bounds the index range, the second breaks ties on equal timestamps
+            sql.append(" AND timestamp <= ? AND (timestamp < ? OR id < ?)");
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ?");
+        
         List<ApplyLog> logs = new ArrayList<>();
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT vacancy_id, action, message, timestamp FROM logs ORDER BY timestamp DESC LIMIT ?")) {
-            stmt.setInt(1, limit);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    logs.add(new ApplyLog(
-                        rs.getString("vacancy_id"),
-                        rs.getString("action"),
-                        rs.getString("message"),
-                        rs.getTimestamp("timestamp").toLocalDateTime()
-                    ));
+        long[] last = new long[2];
+        boolean hasMore;
+        try {
+            hasMore = pool.read(db -> {
+                PreparedStatement stmt = db.prepare(sql.toString());
+                int index = 1;
+                if (action != null) {
+                    stmt.setString(index++, action);
                 }
-            }
+                if (vacancyId != null) {
+                    stmt.setString(index++, vacancyId);
+                }
+                if (after != null) {
+                    Timestamp timestamp = new Timestamp(after[0]);
+                    stmt.setTimestamp(index++, timestamp);
+                    stmt.setTimestamp(index++, timestamp);
+                    stmt.setLong(index++, after[1]);
+                }
+                // one extra row tells whether there is a next page
+                stmt.setInt(index, limit + 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (logs.size() == limit) {
+                            return true;
+                        }
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        last[0] = timestamp.getTime();
+                        last[1] = rs.getLong("id");
+                        logs.add(new ApplyLog(
+                            rs.getString("vacancy_id"),
+                            rs.getString("action"),
+                            rs.getString("message"),
+                            timestamp.toLocalDateTime()
+                        ));
+                    }
+                }
+                return false;
+            });
         } catch (SQLException e) {
-            log.error("Failed to get recent logs", e);
+            log.error("Failed to get logs", e);
+            return new LogPage(logs, null);
         }
-        return logs;
+        return new LogPage(logs, hasMore ? last[0] + "_" + last[1] : null);
     }
     
-    public int getAppliedCount() {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM applied")) {
+    private static long[] parseCursor(String cursor) {
+        int separator = cursor.indexOf('_');
+        try {
+            if (separator > 0) {
+                return new long[] {
+                    Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1))
+                };
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    
+    /**
+     * Parsed vacancy saved by {@link #cacheVacancy}, if it was saved at or after notBeforeMillis
+     */
+    public Optional<Vacancy> findCachedVacancy(String vacancyId, long notBeforeMillis) throws SQLException {
+        return pool.read(db -> {
+            PreparedStatement stmt = db.prepare(SQL_CACHED_VACANCY);
+            stmt.setString(1, vacancyId);
+            stmt.setLong(2, notBeforeMillis);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+                if (!rs.next()) {
+                    return Optional.empty();
                 }
+                String skills = rs.getString("skills");
+                return Optional.of(new Vacancy(
+                    vacancyId,
+                    rs.getString("title"),
+                    rs.getString("company"),
+                    rs.getString("location"),
+                    rs.getString("salary_raw"),
+                    skills == null || skills.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(skills.split("\n"))),
+                    rs.getString("description"),
+                    rs.getString("employment_type"),
+                    rs.getString("work_format"),
+                    rs.getString("source_url")
+                ));
             }
-        } catch (SQLException e) {
-            log.error("Failed to get applied count", e);
-        }
-        return 0;
+        });
+    }
+    
+    /**
+     * Saves the parsed vacancy fields, replacing an older copy; skills are stored one per line
+     */
+    public void cacheVacancy(Vacancy vacancy) throws SQLException {
+        pool.write(db -> {
+            PreparedStatement stmt = db.prepare(SQL_CACHE_VACANCY);
+            stmt.setString(1, vacancy.getId());
+            stmt.setString(2, vacancy.getTitle());
+            stmt.setString(3, vacancy.getCompany());
+            stmt.setString(4, vacancy.getLocation());
+            stmt.setString(5, vacancy.getSalaryRaw());
+            stmt.setString(6, vacancy.getSkills() == null ? null : String.join("\n", vacancy.getSkills()));
+            stmt.setString(7, vacancy.getDescription());
+            stmt.setString(8, vacancy.getEmploymentType());
+            stmt.setString(9, vacancy.getWorkFormat());
+            stmt.setString(10, vacancy.getSourceUrl());
+            stmt.setLong(11, System.currentTimeMillis());
+            return stmt.executeUpdate();
+        });
+    }
+    
+    /**
+     * Deletes cached vacancies saved before notBeforeMillis
+     * @return number of deleted rows
+     */
+    public int pruneCachedVacancies(long notBeforeMillis) throws SQLException {
+        return pool.write(db -> {
+            PreparedStatement stmt = db.prepare(SQL_PRUNE_VACANCIES);
+            stmt.setLong(1, notBeforeMillis);
+            return stmt.executeUpdate();
+        });
+    }
+    
+    /**
+     * Evaluation result JSON stored under this key
+     */
+    public Optional<String> findEvaluation(String key) throws SQLException {
+        return pool.read(db -> {
+            PreparedStatement stmt = db.prepare(SQL_FIND_EVALUATION);
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(rs.getString(1)) : Optional.empty();
+            }
+        });
+    }
+    
+    /**
+     * Stores an evaluation and, in the same transaction, drops evaluations of the vacancy
+     * made for different content: they can no longer be looked up
+     * @return number of dropped evaluations
+     */
+    public int saveEvaluation(String key, String vacancyId, String contentHash, String model, String resultJson)
+            throws SQLException {
+        return pool.transaction(db -> {
+            PreparedStatement stale = db.prepare(SQL_STALE_EVALUATIONS);
+            stale.setString(1, vacancyId);
+            stale.setString(2, contentHash);
+            int removed = stale.executeUpdate();
+            
+            PreparedStatement stmt = db.prepare(SQL_SAVE_EVALUATION);
+            stmt.setString(1, key);
+            stmt.setString(2, vacancyId);
+            stmt.setString(3, contentHash);
+            stmt.setString(4, model);
+            stmt.setString(5, resultJson);
+            stmt.setLong(6, System.currentTimeMillis());
+            stmt.executeUpdate();
+            return removed;
+        });
     }
-} 
\ No newline at end of file
+}
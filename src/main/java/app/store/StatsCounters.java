@@ -0,0 +1,126 @@
+package app.store;
+
+import app.model.ApplyLog;
+import app.model.ApplyStats;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters behind the dashboard, kept in the stats table and mirrored in memory.
+ * Deltas are written with the rows they describe, in the same transaction, and the
+ * mirror is only bumped after that transaction commits, so readers never see a
+ * count the database does not have.
+ */
+class StatsCounters {
+    static final String APPLIED_TOTAL = "applied_total";
+    static final String SKIPS = "skips";
+    static final String APPLIED_DAY_PREFIX = "applied_day:";
+    static final String FAILURE_PREFIX = "failures:";
+    
+    private static final String SQL_LOAD = "SELECT name, value FROM stats";
+    private static final String SQL_ADD = "INSERT INTO stats (name, value) VALUES (?, ?) "
+            + "ON CONFLICT (name) DO UPDATE SET value = value + excluded.value";
+    private static final String FAILED_STATUS_PREFIX = "Status: ";
+    
+    private final Map<String, AtomicLong> values = new ConcurrentHashMap<>();
+    
+    void load(SqliteConnectionPool.Handle db) throws SQLException {
+        PreparedStatement stmt = db.prepare(SQL_LOAD);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                values.put(rs.getString(1), new AtomicLong(rs.getLong(2)));
+            }
+        }
+    }
+    
+    /**
+     * Counter changes for one applied vacancy
+     */
+    static Map<String, Long> forApplied(LocalDate day) {
+        return Map.of(APPLIED_TOTAL, 1L, APPLIED_DAY_PREFIX + day, 1L);
+    }
+    
+    /**
+     * Counter changes for a batch of log entries: skips and failures by status
+     */
+    static Map<String, Long> forLogs(List<ApplyLog> batch) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (ApplyLog entry : batch) {
+            if ("SKIP".equals(entry.action())) {
+                deltas.merge(SKIPS, 1L, Long::sum);
+            } else if ("APPLY_FAIL".equals(entry.action())) {
+                deltas.merge(FAILURE_PREFIX + failureStatus(entry.message()), 1L, Long::sum);
+            }
+        }
+        return deltas;
+    }
+    
+    /**
+     * Writes deltas into the stats table; call inside the transaction that writes the rows
+     */
+    static void write(SqliteConnectionPool.Handle db, Map<String, Long> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = db.prepare(SQL_ADD);
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            stmt.setString(1, delta.getKey());
+            stmt.setLong(2, delta.getValue());
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+    }
+    
+    /**
+     * Mirrors committed deltas in memory
+     */
+    void apply(Map<String, Long> deltas) {
+        deltas.forEach((name, delta) -> values.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta));
+    }
+    
+    long get(String name) {
+        AtomicLong value = values.get(name);
+        return value == null ? 0 : value.get();
+    }
+    
+    ApplyStats snapshot() {
+        Map<String, Long> byDay = new TreeMap<>();
+        Map<String, Long> byStatus = new TreeMap<>();
+        long failures = 0;
+        for (Map.Entry<String, AtomicLong> entry : values.entrySet()) {
+            String name = entry.getKey();
+            long value = entry.getValue().get();
+            if (name.startsWith(APPLIED_DAY_PREFIX)) {
+                byDay.put(name.substring(APPLIED_DAY_PREFIX.length()), value);
+            } else if (name.startsWith(FAILURE_PREFIX)) {
+                byStatus.put(name.substring(FAILURE_PREFIX.length()), value);
+                failures += value;
+            }
+        }
+        return new ApplyStats(get(APPLIED_TOTAL), get(APPLIED_DAY_PREFIX + LocalDate.now()), get(SKIPS), failures,
+                Collections.unmodifiableMap(byDay), Collections.unmodifiableMap(byStatus));
+    }
+    
+    /**
+     * ApplyService logs HTTP failures as "Status: 403"; anything else is an error without a response
+     */
+    private static String failureStatus(String message) {
+        if (message != null && message.startsWith(FAILED_STATUS_PREFIX)) {
+            String code = message.substring(FAILED_STATUS_PREFIX.length()).trim();
+            if (!code.isEmpty() && code.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                return code;
+            }
+        }
+        return "error";
+    }
+}
@@ -2,6 +2,7 @@ package app.web;
 
 import app.config.Env;
 import app.model.ApplyLog;
+import app.model.ApplyStats;
 import app.model.ApplySummary;
 import app.model.EvaluationResult;
 import app.model.UserProfile;
@@ -42,11 +43,12 @@ public class DashboardController {
         // Get recent logs
         List<ApplyLog> recentLogs = applyService.getRecentLogs(20);
         
-        // Get total applied count
-        int totalApplied = applyService.getAppliedCount();
+        // Counters are kept in memory by the store
+        ApplyStats stats = applyService.getStats();
         
         model.addAttribute("recentLogs", recentLogs);
-        model.addAttribute("totalApplied", totalApplied);
+        model.addAttribute("totalApplied", stats.appliedTotal());
+        model.addAttribute("stats", stats);
         model.addAttribute("isDryRun", env.isApplyDryRun());
         
         return "dashboard";
@@ -0,0 +1,45 @@
+package app.web;
+
+import app.model.LogPage;
+import app.service.ApplyService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * JSON paging through the apply log history
+ */
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+    
+    private static final int MAX_LIMIT = 500;
+    
+    private final ApplyService applyService;
+    
+    public HistoryController(ApplyService applyService) {
+        this.applyService = applyService;
+    }
+    
+    @GetMapping
+    public LogPage history(@RequestParam(required = false) String action,
+                           @RequestParam(required = false) String vacancyId,
+                           @RequestParam(required = false) String cursor,
+                           @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            return applyService.getLogHistory(blankToNull(action), blankToNull(vacancyId), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,120 @@
+package app.web;
+
+import app.hh.HhClient;
+import app.http.AdaptiveRateLimiter;
+import app.http.CircuitBreaker;
+import app.http.HttpClientFactory;
+import app.http.HttpClientMetrics;
+import app.service.EvaluationCache;
+import app.service.OllamaClient;
+import app.service.VacancyCache;
+import app.service.VacancyEvaluationService;
+import app.service.WebDriverPool;
+import app.store.AsyncLogWriter;
+import app.store.LogRetention;
+import app.store.SqliteStore;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JSON view of runtime counters for monitoring
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+    
+    private final HttpClientFactory httpClientFactory;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final HhClient hhClient;
+    private final SqliteStore store;
+    private final LogRetention logRetention;
+    private final VacancyEvaluationService evaluationService;
+    private final OllamaClient ollamaClient;
+    
+    public MetricsController(HttpClientFactory httpClientFactory, AdaptiveRateLimiter rateLimiter,
+                             CircuitBreaker circuitBreaker, HhClient hhClient, SqliteStore store,
+                             LogRetention logRetention, VacancyEvaluationService evaluationService,
+                             OllamaClient ollamaClient) {
+        this.httpClientFactory = httpClientFactory;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.hhClient = hhClient;
+        this.store = store;
+        this.logRetention = logRetention;
+        this.evaluationService = evaluationService;
+        this.ollamaClient = ollamaClient;
+    }
+    
+    @GetMapping("/http")
+    public HttpClientMetrics.Snapshot http() {
+        return httpClientFactory.getMetrics();
+    }
+    
+    @GetMapping("/rate-limiter")
+    public AdaptiveRateLimiter.Snapshot rateLimiter() {
+        return rateLimiter.snapshot();
+    }
+    
+    @GetMapping("/resilience")
+    public Map<String, Object> resilience() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("circuitBreaker", circuitBreaker.snapshot());
+        result.put("retries", hhClient.getRetryCounts());
+        return result;
+    }
+    
+    @GetMapping("/log-writer")
+    public AsyncLogWriter.Snapshot logWriter() {
+        return store.getLogWriterMetrics();
+    }
+    
+    @GetMapping("/retention")
+    public LogRetention.Snapshot retention() {
+        return logRetention.snapshot();
+    }
+    
+    @GetMapping("/webdriver")
+    public Map<String, Object> webDriver() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Optional<WebDriverPool.Snapshot> pool = evaluationService.getWebDriverPoolMetrics();
+        result.put("enabled", pool.isPresent());
+        pool.ifPresent(snapshot -> result.put("pool", snapshot));
+        evaluationService.getSeleniumPageStats().ifPresent(stats -> result.put("pages", stats));
+        return result;
+    }
+    
+    @GetMapping("/vacancy-cache")
+    public Map<String, Object> vacancyCache() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Optional<VacancyCache.Snapshot> cache = evaluationService.getVacancyCacheMetrics();
+        result.put("enabled", cache.isPresent());
+        cache.ifPresent(snapshot -> result.put("cache", snapshot));
+        return result;
+    }
+    
+    @GetMapping("/evaluation-cache")
+    public Map<String, Object> evaluationCache() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Optional<EvaluationCache.Snapshot> cache = evaluationService.getEvaluationCacheMetrics();
+        result.put("enabled", cache.isPresent());
+        cache.ifPresent(snapshot -> result.put("cache", snapshot));
+        return result;
+    }
+    
+    @GetMapping("/ollama")
+    public Map<String, Object> ollama() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("health", ollamaClient.getHealth());
+        result.put("scheduler", ollamaClient.getSchedulerMetrics());
+        result.put("streaming", ollamaClient.getStreamingMetrics());
+        result.put("structured", ollamaClient.getStructuredMetrics());
+        result.put("routing", evaluationService.getRoutingMetrics());
+        return result;
+    }
+}
\ No newline at end of file
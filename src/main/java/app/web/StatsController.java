@@ -0,0 +1,24 @@
+package app.web;
+
+import app.model.ApplyStats;
+import app.service.ApplyService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Dashboard counters as JSON for polling clients
+ */
+@RestController
+public class StatsController {
+    
+    private final ApplyService applyService;
+    
+    public StatsController(ApplyService applyService) {
+        this.applyService = applyService;
+    }
+    
+    @GetMapping("/api/stats")
+    public ApplyStats stats() {
+        return applyService.getStats();
+    }
+}
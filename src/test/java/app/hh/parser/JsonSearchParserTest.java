@@ -0,0 +1,52 @@
+package app.hh.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSearchParserTest {
+
+    private final JsonSearchParser parser = new JsonSearchParser();
+
+    @Test
+    void readsIdsAndPagingFromSamplePage() throws Exception {
+        SearchPage page;
+        try (InputStream json = getClass().getResourceAsStream("/search-sample.json")) {
+            assertNotNull(json, "search-sample.json should be on the test classpath");
+            page = parser.readPage(json);
+        }
+
+        assertEquals(List.of("101234567", "101234568", "101234569"), page.vacancyIds(),
+                "page order, duplicates and null ids dropped, nested and cluster ids ignored");
+        assertEquals(39, page.lastPage());
+        assertEquals(1234, page.totalResults());
+        assertEquals(40, page.pageCount());
+    }
+
+    @Test
+    void fallsBackToTotalResultsWithoutPaging() throws Exception {
+        SearchPage page = parser.readPage(stream(
+                "{\"vacancySearchResult\": {\"vacancies\": [{\"vacancyId\": 1}, {\"vacancyId\": 2}], \"totalResults\": 5}}"));
+
+        assertEquals(List.of("1", "2"), page.vacancyIds());
+        assertEquals(-1, page.lastPage());
+        assertEquals(3, page.pageCount());
+    }
+
+    @Test
+    void nonSearchResponseHasNoIds() throws Exception {
+        SearchPage page = parser.readPage(stream("[{\"vacancyId\": 1}]"));
+
+        assertTrue(page.vacancyIds().isEmpty());
+        assertEquals(1, page.pageCount());
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package app.hh.parser;
+
+import app.model.Vacancy;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VacancyPageParserTest {
+
+    private static final String URL = "https://hh.ru/vacancy/12345678";
+
+    private final VacancyPageParser parser = new VacancyPageParser();
+
+    @Test
+    void extractsFieldsFromSamplePage() throws Exception {
+        Vacancy vacancy;
+        try (InputStream html = getClass().getResourceAsStream("/vacancy-sample.html")) {
+            assertNotNull(html, "vacancy-sample.html should be on the test classpath");
+            vacancy = parser.parse(html, "12345678", URL);
+        }
+
+        assertEquals("12345678", vacancy.getId());
+        assertEquals(URL, vacancy.getSourceUrl());
+        assertEquals("Java Developer", vacancy.getTitle());
+        assertEquals("Test Company", vacancy.getCompany());
+        assertEquals("Москва", vacancy.getLocation());
+        assertEquals("150 000 ₽", vacancy.getSalaryRaw());
+        assertEquals("Полная занятость", vacancy.getEmploymentType());
+        assertEquals("Гибридный формат", vacancy.getWorkFormat());
+
+        String description = vacancy.getDescription();
+        assertTrue(description.startsWith("Требуется Java разработчик"));
+        assertTrue(description.contains("\nРазработка веб-приложений на Java\n"), "list items keep their own lines");
+        assertFalse(description.contains("PostgreSQL</p>"));
+
+        assertEquals(
+                List.of("Java", "Spring Boot", "Hibernate", "PostgreSQL", "Docker"),
+                vacancy.getSkills().subList(0, 5),
+                "key skills come first, in page order");
+    }
+
+    @Test
+    void nonVacancyPageHasNoTitle() {
+        Vacancy vacancy = parser.parse("<html><body><div class='captcha'>Подтвердите, что вы не робот</div></body></html>",
+                "1", URL);
+
+        assertNull(vacancy.getTitle());
+        assertNull(vacancy.getCompany());
+        assertNull(vacancy.getDescription());
+    }
+}
@@ -0,0 +1,86 @@
+package app.service;
+
+import app.config.OllamaProperties;
+import app.model.EvaluationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationRouterTest {
+
+    private static final OllamaProperties PROPERTIES = new OllamaProperties("http://localhost:11434", "big", "small",
+            0.1, 0.9, 0, "30m", new OllamaProperties.Escalation(50, 80, 0.7));
+
+    @Test
+    void keepsConfidentTriageResultAndEscalatesBorderlineOne() throws Exception {
+        EvaluationRouter router = new EvaluationRouter(PROPERTIES);
+        List<String> calls = new ArrayList<>();
+
+        EvaluationResult clear = router.evaluate(model -> {
+            calls.add(model);
+            return result(30, 90, "Skip", 0.9);
+        });
+        assertEquals(List.of("small"), calls);
+        assertEquals("Skip", clear.getSuggestion());
+
+        calls.clear();
+        EvaluationResult borderline = router.evaluate(model -> {
+            calls.add(model);
+            return model.equals("small") ? result(72, 85, "Apply", 0.9) : result(60, 70, "Skip", 0.8);
+        });
+        assertEquals(List.of("small", "big"), calls);
+        assertEquals("Skip", borderline.getSuggestion());
+
+        EvaluationRouter.Snapshot snapshot = router.snapshot();
+        assertEquals(2, snapshot.evaluations());
+        assertEquals(1, snapshot.escalations());
+        assertEquals(0, snapshot.agreements());
+        assertEquals(12.0, snapshot.avgScoreDelta());
+        assertEquals(2, snapshot.triage().calls());
+        assertEquals(1, snapshot.main().calls());
+    }
+
+    @Test
+    void escalatesLowConfidenceAndInvalidTriageOutput() throws Exception {
+        EvaluationRouter router = new EvaluationRouter(PROPERTIES);
+
+        EvaluationResult lowConfidence = router.evaluate(model ->
+                model.equals("small") ? result(95, 95, "Apply", 0.4) : result(90, 88, "Apply", 0.9));
+        assertEquals(0.9, lowConfidence.getConfidence());
+
+        EvaluationResult invalid = router.evaluate(model -> {
+            if (model.equals("small")) {
+                throw new InvalidModelOutputException("bad", null);
+            }
+            return result(20, 20, "Skip", 0.9);
+        });
+        assertEquals("Skip", invalid.getSuggestion());
+        assertEquals(2, router.snapshot().escalations());
+        assertEquals(1, router.snapshot().triage().failures());
+    }
+
+    @Test
+    void usesMainModelOnlyWithoutTriageModel() throws Exception {
+        OllamaProperties single = new OllamaProperties("http://localhost:11434", "big", "", 0.1, 0.9, 0, "30m",
+                new OllamaProperties.Escalation(50, 80, 0.7));
+        EvaluationRouter router = new EvaluationRouter(single);
+        List<String> calls = new ArrayList<>();
+
+        router.evaluate(model -> {
+            calls.add(model);
+            return result(60, 60, "Skip", 0.5);
+        });
+
+        assertEquals(List.of("big"), calls);
+        assertEquals("big", router.describe());
+        assertFalse(router.snapshot().enabled());
+    }
+
+    private static EvaluationResult result(int jobToUser, int userToJob, String suggestion, double confidence) {
+        return new EvaluationResult(new EvaluationResult.FitScore(jobToUser, List.of()),
+                new EvaluationResult.UserToJobFit(userToJob, List.of(), List.of()), suggestion, confidence, null);
+    }
+}
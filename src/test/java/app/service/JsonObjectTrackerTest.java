@@ -0,0 +1,42 @@
+package app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonObjectTrackerTest {
+
+    @Test
+    void completesWhenTopLevelObjectClosesAcrossChunks() {
+        JsonObjectTracker tracker = new JsonObjectTracker();
+
+        assertFalse(tracker.append("Вот оценка:\n{\"score\": "));
+        assertFalse(tracker.append("85, \"reasons\": [\"a\", "));
+        assertFalse(tracker.append("\"b\"], \"nested\": {\"x\": 1}"));
+        assertTrue(tracker.append("}\nНадеюсь, это поможет!"));
+
+        assertEquals("{\"score\": 85, \"reasons\": [\"a\", \"b\"], \"nested\": {\"x\": 1}}", tracker.json());
+    }
+
+    @Test
+    void ignoresBracesAndEscapedQuotesInsideStrings() {
+        JsonObjectTracker tracker = new JsonObjectTracker();
+
+        assertFalse(tracker.append("{\"text\": \"a } b { \\\"quoted }\\\" \\\\\""));
+        assertFalse(tracker.isComplete());
+        assertTrue(tracker.append("}"));
+
+        assertEquals("{\"text\": \"a } b { \\\"quoted }\\\" \\\\\"}", tracker.json());
+    }
+
+    @Test
+    void staysIncompleteWithoutClosingBrace() {
+        JsonObjectTracker tracker = new JsonObjectTracker();
+
+        assertFalse(tracker.append("no json here"));
+        assertFalse(tracker.append("{\"a\": {\"b\": 1}"));
+
+        assertFalse(tracker.isComplete());
+        assertEquals("{\"a\": {\"b\": 1}", tracker.json());
+    }
+}
@@ -0,0 +1,82 @@
+package app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaStreamingChatTest {
+
+    // Так Ollama отдаёт поток: фрагменты текста, затем отдельный done с пустым content и статистикой
+    private static final List<String> CHUNKS = List.of(
+            "{\"message\":{\"content\":\"{\\\"score\\\": \"},\"done\":false}",
+            "{\"message\":{\"content\":\"85}\"},\"done\":false}",
+            "{\"message\":{\"content\":\"\"},\"done\":true,\"eval_count\":7,"
+                    + "\"prompt_eval_count\":120,\"prompt_eval_duration\":30000000}");
+
+    private HttpServer server;
+    private OllamaStreamingChat chat;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/chat", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : CHUNKS) {
+                    out.write((chunk + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        });
+        server.start();
+        chat = new OllamaStreamingChat("http://127.0.0.1:" + server.getAddress().getPort(),
+                Duration.ofSeconds(3), "30m");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void readsDoneChunkAfterObjectClosesWithSchema() throws Exception {
+        OllamaStreamingChat.Result result = chat.chat("m", "system", "user", Map.of(),
+                new ObjectMapper().readTree("{\"type\": \"object\"}"), true, Duration.ofSeconds(5));
+
+        assertTrue(result.complete());
+        assertFalse(result.stoppedEarly());
+        assertEquals("{\"score\": 85}", result.content());
+        assertEquals(7, result.tokens());
+        assertEquals(120, result.promptTokens());
+        assertEquals(30, result.promptEvalMs());
+
+        OllamaStreamingChat.Snapshot snapshot = chat.snapshot();
+        assertEquals(1, snapshot.promptSamples());
+        assertEquals(120.0, snapshot.avgPromptTokens());
+        assertEquals(0, snapshot.earlyStops());
+    }
+
+    @Test
+    void stopsAtClosedObjectWithoutSchema() throws Exception {
+        OllamaStreamingChat.Result result = chat.chat("m", "system", "user", Map.of(), null, true,
+                Duration.ofSeconds(5));
+
+        assertTrue(result.complete());
+        assertTrue(result.stoppedEarly());
+        assertEquals("{\"score\": 85}", result.content());
+        assertEquals(-1, result.promptTokens());
+        assertEquals(0, chat.snapshot().promptSamples());
+    }
+}
@@ -0,0 +1,116 @@
+package app.service;
+
+import app.config.OllamaProperties;
+import app.model.UserProfile;
+import app.model.Vacancy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Обработка промпта сервером при оценке серии вакансий для одного профиля.
+ * "before" - прежняя раскладка: всё в одном пользовательском сообщении, вакансия впереди профиля;
+ * "after" - профиль в неизменном системном сообщении, вакансия в пользовательском.
+ * Сравниваются prompt_eval_count (токены, вычисленные заново, без кэша) и prompt_eval_duration.
+ * Нужна запущенная Ollama с моделью ollama.model; без неё тест пропускается.
+ * Запуск: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class PromptPrefixBenchmark {
+
+    private static final int VACANCIES = 8;
+    private static final String SYSTEM_PROMPT =
+            "Ты - эксперт по оценке соответствия вакансий и кандидатов. Отвечай строго в JSON формате.";
+    // Генерация в замер не входит: достаточно нескольких токенов
+    private static final Map<String, Object> OPTIONS = Map.of("temperature", 0.0, "num_predict", 8);
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Test
+    void profilePrefixIsEvaluatedOnce() throws Exception {
+        OllamaProperties properties = OllamaProperties.defaults();
+        assumeTrue(reachable(properties.baseUrl()), "Ollama недоступна: " + properties.baseUrl());
+
+        OllamaStreamingChat chat = new OllamaStreamingChat(properties.baseUrl(), Duration.ofSeconds(3),
+                properties.keepAlive());
+        UserProfile profile = profile();
+        List<Vacancy> vacancies = vacancies();
+        String prefix = VacancyEvaluationService.buildProfilePrefix(profile);
+
+        // Загрузка модели не должна попасть в первый замер
+        chat.chat(properties.model(), SYSTEM_PROMPT, "ping", OPTIONS, null, false, TIMEOUT);
+
+        long[] before = new long[2];
+        for (Vacancy vacancy : vacancies) {
+            String prompt = VacancyEvaluationService.buildVacancyPrompt(vacancy) + "\n" + prefix;
+            add(before, chat.chat(properties.model(), SYSTEM_PROMPT, prompt, OPTIONS, null, false, TIMEOUT));
+        }
+        long[] after = new long[2];
+        for (Vacancy vacancy : vacancies) {
+            String prompt = VacancyEvaluationService.buildVacancyPrompt(vacancy);
+            add(after, chat.chat(properties.model(), prefix, prompt, OPTIONS, null, false, TIMEOUT));
+        }
+
+        System.out.printf("Prompt prefill, %d vacancies on %s: before=%d tokens/%d ms, after=%d tokens/%d ms (x%.1f tokens)%n",
+                VACANCIES, properties.model(), before[0], before[1], after[0], after[1],
+                (double) before[0] / Math.max(1, after[0]));
+        assertTrue(after[0] < before[0], "profile prefix should come from the server prompt cache");
+    }
+
+    private static void add(long[] totals, OllamaStreamingChat.Result result) {
+        totals[0] += result.promptTokens();
+        totals[1] += result.promptEvalMs();
+    }
+
+    private static boolean reachable(String baseUrl) {
+        try {
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/tags")).timeout(Duration.ofSeconds(3)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static UserProfile profile() {
+        UserProfile profile = new UserProfile();
+        profile.setFullName("Иван Петров");
+        profile.setExperienceYears(6);
+        profile.setSkills(List.of("Java", "Spring Boot", "PostgreSQL", "Kafka", "Docker", "Kubernetes", "REST", "gRPC"));
+        profile.setStack(List.of("Java 21", "Spring", "Hibernate", "Redis", "Gradle", "GitLab CI"));
+        profile.setPreferredLocations(List.of("Москва", "Санкт-Петербург"));
+        profile.setPreferredWorkFormat("удалённо");
+        profile.setSalaryExpectations(new UserProfile.SalaryExpectations(250_000, 400_000, 300_000));
+        return profile;
+    }
+
+    private static List<Vacancy> vacancies() {
+        List<Vacancy> vacancies = new ArrayList<>();
+        for (int i = 0; i < VACANCIES; i++) {
+            Vacancy vacancy = new Vacancy();
+            vacancy.setId(String.valueOf(100_000_000 + i));
+            vacancy.setTitle("Java разработчик " + i);
+            vacancy.setCompany("Компания " + i);
+            vacancy.setLocation(i % 2 == 0 ? "Москва" : "Казань");
+            vacancy.setSalaryRaw((200 + i * 20) + " 000 руб.");
+            vacancy.setSkills(List.of("Java", i % 2 == 0 ? "Kafka" : "RabbitMQ", "SQL"));
+            vacancy.setDescription("Разработка сервиса " + i + " на Java и Spring. Команда из " + (4 + i)
+                    + " человек, код-ревью, CI/CD, мониторинг.");
+            vacancy.setEmploymentType("полная занятость");
+            vacancy.setWorkFormat(i % 3 == 0 ? "офис" : "удалённо");
+            vacancies.add(vacancy);
+        }
+        return vacancies;
+    }
+}
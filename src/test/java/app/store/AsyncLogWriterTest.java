@@ -0,0 +1,98 @@
+package app.store;
+
+import app.config.Env;
+import app.model.ApplyLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class AsyncLogWriterTest {
+
+    private static final int THREADS = 4;
+    private static final int ENTRIES_PER_THREAD = 2000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void entriesSubmittedWhileClosingAreWrittenOrCountedAsDropped() throws Exception {
+        Env env = spy(new Env());
+        env.init();
+        doReturn(tempDir.resolve("logs.db").toString()).when(env).getDbPath();
+        SqliteStore store = new SqliteStore(env);
+        store.init();
+        try {
+            SqliteConnectionPool pool = store.pool();
+            AsyncLogWriter writer = new AsyncLogWriter(pool, AsyncLogWriterTest::insert, 64, 16, 5,
+                    AsyncLogWriter.OverflowPolicy.BLOCK);
+
+            AtomicInteger submitted = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                        writer.submit(new ApplyLog(thread + "-" + i, "TEST", null, LocalDateTime.now()));
+                        submitted.incrementAndGet();
+                    }
+                }));
+            }
+
+            start.countDown();
+            while (submitted.get() < THREADS * ENTRIES_PER_THREAD / 4) {
+                Thread.onSpinWait();
+            }
+            writer.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long rows = pool.read(db -> {
+                try (ResultSet rs = db.prepare("SELECT COUNT(*) FROM logs WHERE action = 'TEST'").executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
+            });
+            AsyncLogWriter.Snapshot snapshot = writer.snapshot();
+            assertEquals(0, snapshot.failed());
+            assertEquals(0, snapshot.queueDepth());
+            assertEquals(rows, snapshot.written());
+            assertEquals(THREADS * ENTRIES_PER_THREAD, rows + snapshot.dropped(),
+                    "every entry is either written or counted as dropped");
+        } finally {
+            store.close();
+        }
+    }
+
+    private static Runnable insert(SqliteConnectionPool.Handle db, List<ApplyLog> batch) throws SQLException {
+        PreparedStatement stmt = db.prepare("INSERT INTO logs (vacancy_id, action, message, timestamp) VALUES (?, ?, ?, ?)");
+        for (ApplyLog entry : batch) {
+            stmt.setString(1, entry.vacancyId());
+            stmt.setString(2, entry.action());
+            stmt.setString(3, entry.message());
+            stmt.setTimestamp(4, Timestamp.valueOf(entry.timestamp()));
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package app.store;
+
+import app.config.Env;
+import app.model.ApplyLog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Per-vacancy write pattern of the apply loop: FOUND log, isApplied, APPLY_OK log, markApplied.
+ * "before" replays it the old way (new connection and statement per call),
+ * "after" runs it through SqliteStore, including the wait for queued logs to be flushed.
+ * Run with ./gradlew benchmark
+ */
+@Tag("benchmark")
+class SqliteStoreBenchmark {
+
+    private static final int VACANCIES = 2000;
+    private static final int OPS_PER_VACANCY = 4;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void perVacancyWritePattern() throws Exception {
+        double before = runPerCallConnections(tempDir.resolve("before.db").toString());
+        double after = runStore(tempDir.resolve("after.db").toString());
+
+        System.out.printf("SqliteStore per-vacancy pattern, %d vacancies: before=%.0f ops/s, after=%.0f ops/s (x%.1f)%n",
+                VACANCIES, before, after, after / before);
+        assertTrue(after > before, "pooled store should beat per-call connections");
+    }
+
+    private double runStore(String dbPath) throws Exception {
+        Env env = spy(new Env());
+        env.init();
+        doReturn(dbPath).when(env).getDbPath();
+
+        SqliteStore store = new SqliteStore(env);
+        store.init();
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < VACANCIES; i++) {
+                String vacancyId = String.valueOf(100_000_000 + i);
+                store.addLog(ApplyLog.found(vacancyId));
+                if (!store.isApplied(vacancyId)) {
+                    store.addLog(ApplyLog.applyOk(vacancyId));
+                    store.markApplied(vacancyId);
+                }
+            }
+            // Logs are written in the background; count them only once they are on disk
+            assertTrue(store.flushLogs(30_000), "log writer should catch up");
+            return opsPerSecond(System.nanoTime() - start);
+        } finally {
+            store.close();
+        }
+    }
+
+    private double runPerCallConnections(String dbPath) throws Exception {
+        String url = "jdbc:sqlite:" + dbPath;
+        try (Connection conn = DriverManager.getConnection(url)) {
+            conn.createStatement().execute("CREATE TABLE applied (vacancy_id TEXT PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+            conn.createStatement().execute("CREATE TABLE logs (id INTEGER PRIMARY KEY AUTOINCREMENT, vacancy_id TEXT NOT NULL, "
+                    + "action TEXT NOT NULL, message TEXT, timestamp TIMESTAMP NOT NULL)");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < VACANCIES; i++) {
+            String vacancyId = String.valueOf(100_000_000 + i);
+            insertLog(url, ApplyLog.found(vacancyId));
+            boolean applied;
+            try (Connection conn = DriverManager.getConnection(url);
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM applied WHERE vacancy_id = ?")) {
+                stmt.setString(1, vacancyId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    applied = rs.next();
+                }
+            }
+            if (!applied) {
+                insertLog(url, ApplyLog.applyOk(vacancyId));
+                try (Connection conn = DriverManager.getConnection(url);
+                     PreparedStatement stmt = conn.prepareStatement("INSERT INTO applied (vacancy_id, applied_at) VALUES (?, ?)")) {
+                    stmt.setString(1, vacancyId);
+                    stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    stmt.executeUpdate();
+                }
+            }
+        }
+        return opsPerSecond(System.nanoTime() - start);
+    }
+
+    private static void insertLog(String url, ApplyLog entry) throws Exception {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO logs (vacancy_id, action, message, timestamp) VALUES (?, ?, ?, ?)")) {
+            stmt.setString(1, entry.vacancyId());
+            stmt.setString(2, entry.action());
+            stmt.setString(3, entry.message());
+            stmt.setTimestamp(4, Timestamp.valueOf(entry.timestamp()));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static double opsPerSecond(long elapsedNanos) {
+        return VACANCIES * OPS_PER_VACANCY / (elapsedNanos / 1_000_000_000.0);
+    }
+}